@@ -43,6 +43,11 @@ android {
     kotlinOptions {
         jvmTarget = "1.8"
     }
+
+    testOptions {
+        // Local unit tests call into android.util.Log; let the stubs return defaults
+        unitTests.isReturnDefaultValues = true
+    }
 }
 
 dependencies {
@@ -116,6 +121,7 @@ dependencies {
 
     // ===== TESTING =====
     testImplementation("junit:junit:4.13.2")
+    testImplementation("com.squareup.okhttp3:mockwebserver:4.12.0")
     androidTestImplementation("androidx.test.ext:junit:1.1.5")
     androidTestImplementation("androidx.test.espresso:espresso-core:3.5.1")
 }
@@ -0,0 +1,56 @@
+package com.arsalankhan.venuego;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Deterministic synthetic venues spread over Maharashtra for the database benchmarks.
+ */
+final class BenchmarkVenues {
+    static final double SOUTH = 15.6;
+    static final double NORTH = 22.0;
+    static final double WEST = 72.6;
+    static final double EAST = 80.9;
+
+    private static final String[] CITIES = {"Mumbai", "Pune", "Nagpur", "Nashik", "Aurangabad", "Thane"};
+    private static final String[] CATEGORIES = {"Banquet Hall", "Restaurant", "Hotel", "Auditorium", "Lawn", "Cafe"};
+    private static final String[] TYPES = {"Indoor", "Outdoor", "Indoor/Outdoor"};
+    private static final String[] WORDS = {"Royal", "Grand", "Palace", "Garden", "Sunrise", "Lotus", "Heritage",
+            "Crystal", "Orchid", "Riverside", "Imperial", "Emerald", "Sapphire", "Harmony", "Celebration"};
+
+    private BenchmarkVenues() {
+    }
+
+    static List<Venue> create(int count, long seed) {
+        Random random = new Random(seed);
+        List<Venue> venues = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Venue venue = new Venue();
+            venue.setId("bench_" + i);
+            venue.setName(WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)] + " " + i);
+            venue.setCity(CITIES[random.nextInt(CITIES.length)]);
+            venue.setAddress(random.nextInt(500) + " " + WORDS[random.nextInt(WORDS.length)] + " Road, " + venue.getCity());
+            venue.setCategory(CATEGORIES[random.nextInt(CATEGORIES.length)]);
+            venue.setType(TYPES[random.nextInt(TYPES.length)]);
+            venue.setDescription("A " + WORDS[random.nextInt(WORDS.length)].toLowerCase() + " venue for weddings,"
+                    + " receptions and " + WORDS[random.nextInt(WORDS.length)].toLowerCase() + " events");
+            venue.setCapacity(50 + random.nextInt(950));
+            venue.setPriceRange(10000 + random.nextInt(190000));
+            venue.setRating(1 + random.nextInt(40) / 10.0);
+            venue.setReviewCount(random.nextInt(500));
+            venue.setLatitude(SOUTH + random.nextDouble() * (NORTH - SOUTH));
+            venue.setLongitude(WEST + random.nextDouble() * (EAST - WEST));
+
+            List<String> amenities = new ArrayList<>();
+            for (String code : AmenityCatalog.CODES) {
+                if (random.nextInt(3) == 0) amenities.add(code);
+            }
+            venue.setAmenities(amenities);
+            venue.setImages(Arrays.asList("https://example.com/venues/" + i + ".jpg"));
+            venues.add(venue);
+        }
+        return venues;
+    }
+}
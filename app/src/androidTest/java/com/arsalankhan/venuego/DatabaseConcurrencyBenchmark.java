@@ -0,0 +1,189 @@
+package com.arsalankhan.venuego;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Mixed read/write throughput of the shared WAL connection against the old pattern of a new
+ * helper per caller that opens, queries and closes the database on every call.
+ */
+@RunWith(AndroidJUnit4.class)
+public class DatabaseConcurrencyBenchmark {
+    private static final String SHARED_DB = "benchmark_shared.db";
+    private static final String PER_CALL_DB = "benchmark_per_call.db";
+    private static final int VENUES = 2000;
+    private static final int READERS = 4;
+    private static final int OPS_PER_THREAD = 300;
+
+    private Context context;
+    private List<Venue> venues;
+
+    private interface HelperSource {
+        DatabaseHelper acquire();
+
+        void release(DatabaseHelper helper);
+    }
+
+    private static final class LoadResult {
+        final long elapsedNanos;
+        final int operations;
+        final int failures;
+
+        LoadResult(long elapsedNanos, int operations, int failures) {
+            this.elapsedNanos = elapsedNanos;
+            this.operations = operations;
+            this.failures = failures;
+        }
+
+        double opsPerSecond() {
+            return operations * 1e9 / elapsedNanos;
+        }
+    }
+
+    @Before
+    public void setUp() {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        context.deleteDatabase(SHARED_DB);
+        context.deleteDatabase(PER_CALL_DB);
+        venues = BenchmarkVenues.create(VENUES, 1);
+
+        DatabaseHelper shared = new DatabaseHelper(context, SHARED_DB);
+        shared.upsertVenues(venues);
+        shared.close();
+
+        DatabaseHelper perCall = new DatabaseHelper(context, PER_CALL_DB);
+        perCall.setWriteAheadLoggingEnabled(false);
+        perCall.upsertVenues(venues);
+        perCall.close();
+    }
+
+    @After
+    public void tearDown() {
+        context.deleteDatabase(SHARED_DB);
+        context.deleteDatabase(PER_CALL_DB);
+    }
+
+    @Test
+    public void sharedConnectionOutperformsOpenClosePerCall() throws Exception {
+        DatabaseHelper shared = new DatabaseHelper(context, SHARED_DB);
+        LoadResult sharedResult = runMixedLoad(new HelperSource() {
+            @Override
+            public DatabaseHelper acquire() {
+                return shared;
+            }
+
+            @Override
+            public void release(DatabaseHelper helper) {
+            }
+        });
+        shared.close();
+
+        LoadResult perCallResult = runMixedLoad(new HelperSource() {
+            @Override
+            public DatabaseHelper acquire() {
+                DatabaseHelper helper = new DatabaseHelper(context, PER_CALL_DB);
+                helper.setWriteAheadLoggingEnabled(false);
+                return helper;
+            }
+
+            @Override
+            public void release(DatabaseHelper helper) {
+                helper.close();
+            }
+        });
+
+        Log.i("DatabaseConcurrencyBenchmark", String.format("shared WAL: %.0f ops/s, %d failures; "
+                        + "open/close per call: %.0f ops/s, %d failures",
+                sharedResult.opsPerSecond(), sharedResult.failures,
+                perCallResult.opsPerSecond(), perCallResult.failures));
+
+        assertEquals(0, sharedResult.failures);
+        assertTrue(sharedResult.opsPerSecond() > perCallResult.opsPerSecond());
+    }
+
+    // READERS threads alternate point lookups and first-page reads while one thread rewrites venues
+    private LoadResult runMixedLoad(HelperSource source) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(READERS + 1);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger failures = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+
+        futures.add(pool.submit(() -> {
+            await(start);
+            Random random = new Random(2);
+            for (int op = 0; op < OPS_PER_THREAD; op++) {
+                Venue venue = venues.get(random.nextInt(venues.size())).clone();
+                venue.setName(venue.getName() + " v" + op);
+                DatabaseHelper helper = source.acquire();
+                try {
+                    if (helper.insertVenue(venue) == 0) failures.incrementAndGet();
+                } catch (RuntimeException e) {
+                    failures.incrementAndGet();
+                } finally {
+                    source.release(helper);
+                }
+            }
+        }));
+        for (int reader = 0; reader < READERS; reader++) {
+            long seed = 10 + reader;
+            futures.add(pool.submit(() -> {
+                await(start);
+                Random random = new Random(seed);
+                for (int op = 0; op < OPS_PER_THREAD; op++) {
+                    DatabaseHelper helper = source.acquire();
+                    try {
+                        if (op % 2 == 0) {
+                            if (helper.getVenue("bench_" + random.nextInt(VENUES)) == null) failures.incrementAndGet();
+                        } else {
+                            helper.getVenueSummariesPage(null, Constants.PAGE_SIZE_VENUES);
+                        }
+                    } catch (RuntimeException e) {
+                        failures.incrementAndGet();
+                    } finally {
+                        source.release(helper);
+                    }
+                }
+            }));
+        }
+
+        long started = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        long elapsed = System.nanoTime() - started;
+        pool.shutdown();
+        pool.awaitTermination(10, TimeUnit.SECONDS);
+
+        return new LoadResult(elapsed, (READERS + 1) * OPS_PER_THREAD, failures.get());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
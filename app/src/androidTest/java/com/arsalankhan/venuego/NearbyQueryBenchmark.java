@@ -0,0 +1,101 @@
+package com.arsalankhan.venuego;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Radius query latency at 100k venues: the geo_cell index probe behind getVenuesNearby against
+ * a full scan of every row with haversine in Java, which is the best the old per-row trig query
+ * could do on SQLite builds without acos/cos/radians.
+ */
+@RunWith(AndroidJUnit4.class)
+public class NearbyQueryBenchmark {
+    private static final String DB = "benchmark_nearby.db";
+    private static final int VENUES = 100_000;
+    private static final double RADIUS_KM = 10;
+    private static final double[][] CENTRES = {
+            {19.0760, 72.8777}, {18.5204, 73.8567}, {21.1458, 79.0882}, {20.0059, 73.7910},
+            {19.8762, 75.3433}, {16.7050, 74.2433}, {17.6599, 75.9064}, {20.9374, 77.7796}
+    };
+
+    private Context context;
+    private DatabaseHelper databaseHelper;
+
+    @Before
+    public void setUp() {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        context.deleteDatabase(DB);
+        databaseHelper = new DatabaseHelper(context, DB);
+        databaseHelper.upsertVenues(BenchmarkVenues.create(VENUES, 1));
+    }
+
+    @After
+    public void tearDown() {
+        databaseHelper.close();
+        context.deleteDatabase(DB);
+    }
+
+    @Test
+    public void gridProbeBeatsFullScan() {
+        long indexNanos = 0;
+        long scanNanos = 0;
+
+        for (double[] centre : CENTRES) {
+            long started = System.nanoTime();
+            List<Venue> nearby = databaseHelper.getVenuesNearby(centre[0], centre[1], RADIUS_KM);
+            indexNanos += System.nanoTime() - started;
+
+            started = System.nanoTime();
+            List<String> scanned = fullScan(centre[0], centre[1]);
+            scanNanos += System.nanoTime() - started;
+
+            // Same nearest venues either way
+            assertEquals(Math.min(50, scanned.size()), nearby.size());
+            for (int i = 0; i < nearby.size(); i++) {
+                assertEquals(scanned.get(i), nearby.get(i).getId());
+            }
+        }
+
+        Log.i("NearbyQueryBenchmark", String.format("%d venues, %.0f km radius: grid probe %.2f ms/query,"
+                        + " full scan %.2f ms/query", VENUES, RADIUS_KM,
+                indexNanos / 1e6 / CENTRES.length, scanNanos / 1e6 / CENTRES.length));
+        assertTrue(indexNanos < scanNanos);
+    }
+
+    // Ids within RADIUS_KM, nearest first
+    private List<String> fullScan(double lat, double lon) {
+        List<String> ids = new ArrayList<>();
+        List<Double> distances = new ArrayList<>();
+        Cursor cursor = databaseHelper.getReadableDatabase()
+                .rawQuery("SELECT id, latitude, longitude FROM venues", null);
+        try {
+            while (cursor.moveToNext()) {
+                double distance = GeoGrid.distanceKm(lat, lon, cursor.getDouble(1), cursor.getDouble(2));
+                if (distance <= RADIUS_KM) {
+                    int at = 0;
+                    while (at < distances.size() && distances.get(at) <= distance) at++;
+                    distances.add(at, distance);
+                    ids.add(at, cursor.getString(0));
+                }
+            }
+        } finally {
+            cursor.close();
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,89 @@
+package com.arsalankhan.venuego;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.List;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Text lookup latency at 100k venues: searchVenuesText over the FTS4 index against the
+ * LIKE '%word%' scan over the same columns that it replaces.
+ */
+@RunWith(AndroidJUnit4.class)
+public class TextSearchBenchmark {
+    private static final String DB = "benchmark_text_search.db";
+    private static final int VENUES = 100_000;
+    private static final int LIMIT = 20;
+    private static final String[] QUERIES = {"royal", "grand pal", "lotus garden", "heritage wedding", "orch"};
+
+    private Context context;
+    private DatabaseHelper databaseHelper;
+
+    @Before
+    public void setUp() {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        context.deleteDatabase(DB);
+        databaseHelper = new DatabaseHelper(context, DB);
+        databaseHelper.upsertVenues(BenchmarkVenues.create(VENUES, 1));
+    }
+
+    @After
+    public void tearDown() {
+        databaseHelper.close();
+        context.deleteDatabase(DB);
+    }
+
+    @Test
+    public void ftsLookupBeatsLikeScan() {
+        long ftsNanos = 0;
+        long likeNanos = 0;
+
+        for (String query : QUERIES) {
+            long started = System.nanoTime();
+            List<Venue> results = databaseHelper.searchVenuesText(query, null, LIMIT);
+            ftsNanos += System.nanoTime() - started;
+            assertFalse(query, results.isEmpty());
+
+            started = System.nanoTime();
+            int likeMatches = likeScan(query);
+            likeNanos += System.nanoTime() - started;
+            assertTrue(query, likeMatches >= results.size());
+        }
+
+        Log.i("TextSearchBenchmark", String.format("%d venues: FTS %.2f ms/query, LIKE scan %.2f ms/query",
+                VENUES, ftsNanos / 1e6 / QUERIES.length, likeNanos / 1e6 / QUERIES.length));
+        assertTrue(ftsNanos < likeNanos);
+    }
+
+    // Every word must appear somewhere in the searched columns; counts all matching rows
+    private int likeScan(String query) {
+        StringBuilder sql = new StringBuilder("SELECT COUNT(*) FROM venues WHERE 1=1");
+        String[] words = query.split(" ");
+        String[] args = new String[words.length * 5];
+        for (int i = 0; i < words.length; i++) {
+            sql.append(" AND (name LIKE ? OR address LIKE ? OR description LIKE ? OR amenities LIKE ?"
+                    + " OR category LIKE ?)");
+            for (int column = 0; column < 5; column++) {
+                args[i * 5 + column] = "%" + words[i] + "%";
+            }
+        }
+        Cursor cursor = databaseHelper.getReadableDatabase().rawQuery(sql.toString(), args);
+        try {
+            return cursor.moveToFirst() ? cursor.getInt(0) : 0;
+        } finally {
+            cursor.close();
+        }
+    }
+}
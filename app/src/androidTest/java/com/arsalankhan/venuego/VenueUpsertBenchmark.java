@@ -0,0 +1,101 @@
+package com.arsalankhan.venuego;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Rows/sec of the bulk upsertVenues path at 1k, 10k and 100k venues, against one
+ * transaction per row (insertVenue in a loop) at 1k.
+ */
+@RunWith(AndroidJUnit4.class)
+public class VenueUpsertBenchmark {
+    private static final String DB = "benchmark_upsert.db";
+
+    private Context context;
+    private DatabaseHelper databaseHelper;
+
+    @Before
+    public void setUp() {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        context.deleteDatabase(DB);
+        databaseHelper = new DatabaseHelper(context, DB);
+    }
+
+    @After
+    public void tearDown() {
+        databaseHelper.close();
+        context.deleteDatabase(DB);
+    }
+
+    @Test
+    public void bulkUpsert1k() {
+        measureBulk(1_000);
+    }
+
+    @Test
+    public void bulkUpsert10k() {
+        measureBulk(10_000);
+    }
+
+    @Test
+    public void bulkUpsert100k() {
+        measureBulk(100_000);
+    }
+
+    @Test
+    public void perRowInsert1k() {
+        List<Venue> venues = BenchmarkVenues.create(1_000, 1);
+        long started = System.nanoTime();
+        for (Venue venue : venues) {
+            databaseHelper.insertVenue(venue);
+        }
+        long elapsed = System.nanoTime() - started;
+        report("per-row insertVenue", venues.size(), elapsed);
+        assertEquals(venues.size(), databaseHelper.getVenueCount());
+    }
+
+    private void measureBulk(int count) {
+        List<Venue> venues = BenchmarkVenues.create(count, 1);
+
+        long started = System.nanoTime();
+        DatabaseHelper.UpsertResult inserted = databaseHelper.upsertVenues(venues);
+        report("upsertVenues insert", count, System.nanoTime() - started);
+        assertEquals(count, inserted.inserted);
+
+        // Same content again: every row is found unchanged and nothing is rewritten
+        started = System.nanoTime();
+        DatabaseHelper.UpsertResult unchanged = databaseHelper.upsertVenues(venues);
+        report("upsertVenues unchanged", count, System.nanoTime() - started);
+        assertEquals(count, unchanged.unchanged);
+
+        List<Venue> edited = new ArrayList<>(count);
+        for (Venue venue : venues) {
+            Venue copy = venue.clone();
+            copy.setRating(venue.getRating() + 0.5);
+            edited.add(copy);
+        }
+        started = System.nanoTime();
+        DatabaseHelper.UpsertResult updated = databaseHelper.upsertVenues(edited);
+        report("upsertVenues update", count, System.nanoTime() - started);
+        assertEquals(count, updated.updated);
+        assertEquals(count, databaseHelper.getVenueCount());
+    }
+
+    private static void report(String label, int rows, long elapsedNanos) {
+        Log.i("VenueUpsertBenchmark", String.format("%s, %d rows: %d ms, %.0f rows/s",
+                label, rows, elapsedNanos / 1_000_000, rows * 1e9 / elapsedNanos));
+    }
+}
@@ -29,7 +29,7 @@ public class AIRecommendationService {
         this.context = context;
         firestore = FirebaseFirestore.getInstance();
         weatherService = new WeatherService(context);
-        databaseHelper = new DatabaseHelper(context);
+        databaseHelper = DatabaseHelper.getInstance(context);
     }
 
     public interface RecommendationCallback {
@@ -102,8 +102,10 @@ public class AIRecommendationService {
 
         if (!localScores.isEmpty()) {
             List<Venue> localVenues = new ArrayList<>();
+            Map<String, Double> scores = new HashMap<>();
             for (DatabaseHelper.VenueScore score : localScores) {
                 localVenues.add(score.venue);
+                scores.put(score.venue.getId(), score.score);
             }
 
             // Apply additional filters
@@ -111,7 +113,7 @@ public class AIRecommendationService {
 
             // Cache recommendations
             if (event.getId() != null) {
-                databaseHelper.saveAIRecommendation(event.getId(), filtered);
+                databaseHelper.saveAIRecommendation(event.getId(), filtered, scores);
             }
 
             callback.onSuccess(filtered);
@@ -346,15 +348,11 @@ public class AIRecommendationService {
     }
 
     private boolean hasWeddingAmenities(Venue venue) {
-        List<String> required = Arrays.asList("stage", "catering", "parking", "ac");
-        if (venue.getAmenities() == null) return false;
-        return venue.getAmenities().containsAll(required);
+        return venue.hasAllAmenities(AmenityCatalog.WEDDING_MASK);
     }
 
     private boolean hasCorporateAmenities(Venue venue) {
-        List<String> required = Arrays.asList("wifi", "sound_system", "ac", "projector");
-        if (venue.getAmenities() == null) return false;
-        return venue.getAmenities().containsAll(required);
+        return venue.hasAllAmenities(AmenityCatalog.CORPORATE_MASK);
     }
 
     private List<Venue> applyNLPFilters(List<Venue> venues, Event event) {
@@ -386,10 +384,8 @@ public class AIRecommendationService {
 
     private void cacheVenuesInLocalDB(List<Venue> venues) {
         new Thread(() -> {
-            for (Venue venue : venues) {
-                databaseHelper.insertVenue(venue);
-            }
-            Log.d("AIRecommendation", "Cached " + venues.size() + " venues locally");
+            DatabaseHelper.UpsertResult result = databaseHelper.upsertVenues(venues);
+            Log.d("AIRecommendation", "Cached " + venues.size() + " venues locally (" + result + ")");
         }).start();
     }
 
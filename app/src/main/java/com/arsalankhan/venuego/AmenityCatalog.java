@@ -0,0 +1,77 @@
+package com.arsalankhan.venuego;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Dictionary of known amenity codes. Each code owns one bit, given by its position in CODES,
+ * so a venue's amenities pack into a single long. Positions are persisted (amenities table,
+ * venues.amenity_mask): only ever append new codes, never reorder or remove.
+ */
+public final class AmenityCatalog {
+    public static final List<String> CODES = Arrays.asList(
+            "parking",
+            "ac",
+            "wifi",
+            "catering",
+            "stage",
+            "lighting",
+            "sound_system",
+            "kitchen",
+            "bar",
+            "restrooms",
+            "wheelchair_accessible",
+            "projector"
+    );
+
+    private static final Map<String, Integer> BIT_BY_CODE = new HashMap<>();
+
+    static {
+        for (int i = 0; i < CODES.size(); i++) {
+            BIT_BY_CODE.put(CODES.get(i), i);
+        }
+    }
+
+    public static final long WEDDING_MASK = maskOf(Arrays.asList("stage", "catering", "parking", "ac"));
+    public static final long CORPORATE_MASK = maskOf(Arrays.asList("wifi", "sound_system", "ac", "projector"));
+
+    private AmenityCatalog() {
+    }
+
+    // Bit position of a code, or -1 if the code is not in the catalogue
+    public static int bitOf(String code) {
+        Integer bit = code != null ? BIT_BY_CODE.get(code) : null;
+        return bit != null ? bit : -1;
+    }
+
+    // Unknown codes are ignored; they stay in the venue's amenity list but have no bit
+    public static long maskOf(Collection<String> codes) {
+        long mask = 0;
+        if (codes == null) return mask;
+        for (String code : codes) {
+            int bit = bitOf(code);
+            if (bit >= 0) {
+                mask |= 1L << bit;
+            }
+        }
+        return mask;
+    }
+
+    public static boolean containsAll(long mask, long required) {
+        return (mask & required) == required;
+    }
+
+    public static List<String> codesOf(long mask) {
+        List<String> codes = new ArrayList<>();
+        for (int i = 0; i < CODES.size(); i++) {
+            if ((mask & (1L << i)) != 0) {
+                codes.add(CODES.get(i));
+            }
+        }
+        return codes;
+    }
+}
@@ -22,7 +22,7 @@ public class AnalyticsService {
         this.context = context;
         firebaseAnalytics = FirebaseAnalytics.getInstance(context);
         crashlytics = FirebaseCrashlytics.getInstance();
-        databaseHelper = new DatabaseHelper(context);
+        databaseHelper = DatabaseHelper.getInstance(context);
     }
 
     // User Analytics
@@ -49,8 +49,8 @@ public class AnalyticsService {
         bundle.putString("venue_category", category);
         firebaseAnalytics.logEvent("venue_view", bundle);
 
-        // Update view count in local database
-        databaseHelper.incrementVenueViews(venueId);
+        // Buffered; written to the local database in batches
+        VenueViewCounter.getInstance(context).recordView(venueId);
     }
 
     public void logVenueSearch(String query, Map<String, Object> filters, int resultCount) {
@@ -1,5 +1,7 @@
 package com.arsalankhan.venuego;
 
+import com.google.firebase.firestore.Exclude;
+
 import java.text.SimpleDateFormat;
 import java.util.Date;
 
@@ -28,7 +30,7 @@ public class Booking {
     private String bookingStatus;   // PENDING, CONFIRMED, CANCELLED
     private String paymentStatus;
     private Date bookingDate;
-    private String createdAt;
+    private long createdAt; // epoch millis, local database only; Firestore keeps bookingDate
 
     // Extra
     private String specialRequirements;
@@ -115,8 +117,10 @@ public class Booking {
     public Date getBookingDate() { return bookingDate; }
     public void setBookingDate(Date bookingDate) { this.bookingDate = bookingDate; }
 
-    public String getCreatedAt() { return createdAt; }
-    public void setCreatedAt(String createdAt) { this.createdAt = createdAt; }
+    @Exclude
+    public long getCreatedAt() { return createdAt; }
+    @Exclude
+    public void setCreatedAt(long createdAt) { this.createdAt = createdAt; }
 
     public String getSpecialRequirements() { return specialRequirements; }
     public void setSpecialRequirements(String specialRequirements) {
@@ -49,15 +49,24 @@ public class BookingActivity extends AppCompatActivity {
         setContentView(binding.getRoot());
 
         authService = new AuthService();
-        databaseHelper = new DatabaseHelper(this);
-
-        venue = (Venue) getIntent().getSerializableExtra("venue");
+        databaseHelper = DatabaseHelper.getInstance(this);
 
         if (!authService.isUserLoggedIn()) {
             redirectToLogin();
             return;
         }
 
+        venue = (Venue) getIntent().getSerializableExtra("venue");
+        String venueId = getIntent().getStringExtra("venueId");
+        if (venue == null && venueId != null) {
+            venue = databaseHelper.getVenue(venueId);
+            if (venue == null) {
+                // Trending and event-planner results are not always cached locally
+                loadVenueFromFirestore(venueId);
+                return;
+            }
+        }
+
         if (venue == null) {
             Toast.makeText(this, "Venue information missing", Toast.LENGTH_SHORT).show();
             finish();
@@ -68,6 +77,33 @@ public class BookingActivity extends AppCompatActivity {
         calculatePrice();
     }
 
+    private void loadVenueFromFirestore(String venueId) {
+        binding.progressBar.setVisibility(View.VISIBLE);
+        new VenueService().getVenueById(venueId, new VenueService.VenueCallback() {
+            @Override
+            public void onSuccess(Venue venueData) {
+                if (isDestroyed()) return;
+                binding.progressBar.setVisibility(View.GONE);
+                venue = venueData;
+
+                // Cache locally
+                databaseHelper.insertVenue(venue);
+
+                setupUI();
+                calculatePrice();
+            }
+
+            @Override
+            public void onFailure(String error) {
+                if (isDestroyed()) return;
+                binding.progressBar.setVisibility(View.GONE);
+                Toast.makeText(BookingActivity.this,
+                        "Venue information missing", Toast.LENGTH_SHORT).show();
+                finish();
+            }
+        });
+    }
+
     private void setupUI() {
         binding.toolbarTitle.setText("Book Venue");
         binding.btnBack.setOnClickListener(v -> onBackPressed());
@@ -247,7 +283,7 @@ public class BookingActivity extends AppCompatActivity {
                             booking.getVenueId(),
                             booking.getUserId(),
                             booking.getEventName() != null ? booking.getEventName() : venue.getName() + " Event",
-                            dbDateFormat.format(booking.getEventDate()),
+                            booking.getEventDate().getTime(),
                             booking.getEventTime(),
                             booking.getGuestCount(),
                             booking.getTotalPrice()
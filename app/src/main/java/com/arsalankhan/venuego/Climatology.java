@@ -0,0 +1,91 @@
+package com.arsalankhan.venuego;
+
+import java.util.Calendar;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Monthly climate normals for the cities OSMDataService covers, used for event dates beyond the
+ * 5-day forecast horizon. Values are rounded long-term averages for four climate zones of
+ * Maharashtra; each city maps to its zone and a coordinate resolves to the nearest city.
+ */
+public final class Climatology {
+    private static final int KONKAN = 0;     // humid coast
+    private static final int DECCAN = 1;     // western plateau, ghats rain shadow
+    private static final int MARATHWADA = 2; // dry interior
+    private static final int VIDARBHA = 3;   // hot east, strong monsoon
+
+    // [zone][month] mean daily maximum temperature, degrees C
+    private static final byte[][] MAX_TEMPERATURE = {
+            {31, 31, 33, 33, 34, 32, 30, 29, 30, 33, 33, 32},
+            {30, 32, 35, 38, 37, 32, 28, 28, 29, 31, 30, 29},
+            {29, 32, 36, 39, 40, 34, 30, 29, 30, 31, 30, 29},
+            {29, 32, 36, 40, 43, 37, 31, 30, 31, 32, 30, 29}
+    };
+
+    // [zone][month] share of days with measurable rain, percent
+    private static final byte[][] RAIN_PROBABILITY = {
+            {0, 0, 0, 1, 5, 60, 85, 80, 55, 15, 3, 1},
+            {1, 0, 2, 5, 10, 50, 75, 65, 45, 20, 5, 1},
+            {1, 1, 2, 3, 7, 45, 55, 55, 45, 20, 5, 1},
+            {3, 3, 5, 3, 5, 45, 70, 65, 45, 15, 3, 2}
+    };
+
+    // [zone][month] mean relative humidity, percent
+    private static final byte[][] HUMIDITY = {
+            {60, 60, 64, 68, 70, 80, 86, 86, 82, 74, 64, 60},
+            {50, 42, 38, 40, 52, 72, 82, 83, 77, 64, 55, 52},
+            {48, 40, 32, 30, 36, 62, 74, 76, 72, 60, 52, 50},
+            {58, 48, 38, 30, 28, 56, 80, 82, 76, 64, 58, 58}
+    };
+
+    private static final Map<String, Integer> ZONE_BY_CITY = new HashMap<String, Integer>() {{
+        put("Mumbai", KONKAN);
+        put("Thane", KONKAN);
+        put("Navi Mumbai", KONKAN);
+        put("Panvel", KONKAN);
+        put("Pune", DECCAN);
+        put("Nashik", DECCAN);
+        put("Kolhapur", DECCAN);
+        put("Sangli", DECCAN);
+        put("Ahmednagar", DECCAN);
+        put("Aurangabad", MARATHWADA);
+        put("Solapur", MARATHWADA);
+        put("Latur", MARATHWADA);
+        put("Parbhani", MARATHWADA);
+        put("Jalna", MARATHWADA);
+        put("Nagpur", VIDARBHA);
+        put("Amravati", VIDARBHA);
+        put("Akola", VIDARBHA);
+        put("Chandrapur", VIDARBHA);
+        put("Jalgaon", VIDARBHA);
+        put("Bhusawal", VIDARBHA);
+    }};
+
+    private Climatology() {
+    }
+
+    // Typical weather for the date's month at the nearest covered city; never touches the network
+    public static WeatherForecast forecastFor(double lat, double lon, Date date) {
+        Integer zone = ZONE_BY_CITY.get(OSMDataService.nearestCity(lat, lon));
+        int z = zone != null ? zone : KONKAN;
+
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTime(date);
+        int month = calendar.get(Calendar.MONTH);
+
+        int rainProbability = RAIN_PROBABILITY[z][month];
+        String condition;
+        if (rainProbability >= 50) {
+            condition = "Rain";
+        } else if (rainProbability >= 20) {
+            condition = "Clouds";
+        } else {
+            condition = "Clear";
+        }
+
+        return new WeatherForecast(condition, MAX_TEMPERATURE[z][month], HUMIDITY[z][month], 0, 0,
+                rainProbability / 100.0, true);
+    }
+}
@@ -136,6 +136,9 @@ public class DataIngestionActivity extends AppCompatActivity {
         FirebaseFirestore.getInstance().collection("venues")
                 .get()
                 .addOnSuccessListener(queryDocumentSnapshots -> {
+                    // Local fingerprints and tile watermarks describe what Firestore held
+                    DatabaseHelper.getInstance(DataIngestionActivity.this).resetOsmSyncState();
+
                     if (queryDocumentSnapshots.isEmpty()) {
                         progressDialog.dismiss();
                         Toast.makeText(DataIngestionActivity.this,
@@ -11,11 +11,7 @@ public class DataSyncReceiver extends BroadcastReceiver {
     public void onReceive(Context context, Intent intent) {
         Log.d("DataSyncReceiver", "Data sync alarm triggered");
 
-        // Start data sync service
-        DataSyncService dataSyncService = new DataSyncService();
-        dataSyncService.performIncrementalSync();
-
-        // You can also start a foreground service here for longer operations
+        // The service owns the sync; an instance created here would have no Context
         startSyncService(context);
     }
 
@@ -24,7 +24,7 @@ public class DataSyncService extends Service {
     public void onCreate() {
         super.onCreate();
         firestore = FirebaseFirestore.getInstance();
-        osmDataService = new OSMDataService();
+        osmDataService = new OSMDataService(this);
     }
 
     @Override
@@ -95,7 +95,7 @@ public class DataSyncService extends Service {
                     if (lastSync == null) {
                         performFullSync();
                     } else {
-                        performIncrementalOSMSync(lastSync);
+                        performIncrementalOSMSync();
                     }
                 })
                 .addOnFailureListener(e -> {
@@ -106,38 +106,51 @@ public class DataSyncService extends Service {
 
     // ================= FULL SYNC =================
     private void performFullSync() {
-
-        osmDataService.fetchAndStoreMaharashtraVenues(
-                new OSMDataService.SimpleOSMDataCallback() {
-                    @Override
-                    public void onSuccess(int venuesAdded) {
-                        String message = "Successfully added " + venuesAdded + " venues";
-                        Log.d("DataSyncService", message);
-                        updateSyncStatus(venuesAdded, "completed");
-                    }
-
-                    @Override
-                    public void onFailure(String error) {
-                        Log.e("DataSyncService", "Sync failed: " + error);
-                        updateSyncStatus(0, "failed");
-                    }
-                }
-        );
+        osmDataService.fetchAndStoreMaharashtraVenues(syncCallback());
     }
 
     // ================= INCREMENTAL SYNC =================
-    private void performIncrementalOSMSync(Date lastSync) {
-        Log.d("DataSyncService", "Incremental fallback → full sync");
-        performFullSync();
+    // Per-tile watermarks live in the local database; tiles without one are fetched in full
+    private void performIncrementalOSMSync() {
+        osmDataService.syncChangedVenues(syncCallback());
+    }
+
+    // Failures are reported per tile, all before onSuccess; the sync still finishes with the
+    // tiles that succeeded, and the recorded status says whether any were left behind
+    private OSMDataService.SimpleOSMDataCallback syncCallback() {
+        return new OSMDataService.SimpleOSMDataCallback() {
+            private int failedTiles = 0;
+
+            @Override
+            public void onSuccess(int venuesAdded) {
+                String status;
+                if (failedTiles == 0) {
+                    status = "completed";
+                } else if (failedTiles >= OSMDataService.coverageTiles().size()) {
+                    status = "failed";
+                } else {
+                    status = "partial";
+                }
+                Log.d("DataSyncService", "Added " + venuesAdded + " venues, " + failedTiles + " tiles failed");
+                updateSyncStatus(venuesAdded, failedTiles, status);
+            }
+
+            @Override
+            public void onFailure(String error) {
+                failedTiles++;
+                Log.e("DataSyncService", "Sync failed: " + error);
+            }
+        };
     }
 
     // ================= UPDATE FIRESTORE =================
-    private void updateSyncStatus(int venuesAdded, String status) {
+    private void updateSyncStatus(int venuesAdded, int failedTiles, String status) {
 
         Map<String, Object> syncData = new HashMap<>();
 
         syncData.put("timestamp", new Date());
         syncData.put("venues_added", venuesAdded);
+        syncData.put("failed_tiles", failedTiles);
         syncData.put("sync_status", status);
 
         firestore.collection("data_sync")
@@ -148,7 +161,8 @@ public class DataSyncService extends Service {
                 )
                 .addOnFailureListener(e ->
                         Log.e("DataSyncService", "Update error: " + e.getMessage())
-                );
+                )
+                .addOnCompleteListener(task -> stopSelf());
     }
 
     @Override
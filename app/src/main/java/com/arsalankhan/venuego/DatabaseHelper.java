@@ -3,30 +3,52 @@ package com.arsalankhan.venuego;
 import android.content.ContentValues;
 import android.content.Context;
 import android.database.Cursor;
+import android.database.DatabaseUtils;
 import android.database.sqlite.SQLiteDatabase;
 import android.database.sqlite.SQLiteOpenHelper;
+import android.database.sqlite.SQLiteStatement;
+import android.os.Looper;
+import android.os.SystemClock;
 import android.util.Log;
 
 import com.google.gson.Gson;
 import com.google.gson.reflect.TypeToken;
 
 import java.lang.reflect.Type;
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class DatabaseHelper extends SQLiteOpenHelper {
     private static final String DATABASE_NAME = "venuego.db";
-    private static final int DATABASE_VERSION = 6;
+    private static final int DATABASE_VERSION = 21;
+
+    // Single process-wide owner of the connection pool; kept open for the app's lifetime
+    private static volatile DatabaseHelper instance;
+
     private Gson gson = new Gson();
-    private SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss", Locale.getDefault());
-    private SimpleDateFormat eventDateFormat = new SimpleDateFormat("yyyy-MM-dd", Locale.getDefault());
+
+    private final AtomicLong weatherCacheHits = new AtomicLong();
+    private final AtomicLong weatherCacheMisses = new AtomicLong();
+
+    // All timestamp columns hold INTEGER epoch millis; event_date is the event day's local midnight
+    private static final String NOW_MILLIS = "(CAST(strftime('%s', 'now') AS INTEGER) * 1000)";
 
     // Table names
     private static final String TABLE_VENUES = "venues";
@@ -35,6 +57,14 @@ public class DatabaseHelper extends SQLiteOpenHelper {
     private static final String TABLE_AI_RECOMMENDATIONS = "ai_recommendations";
     private static final String TABLE_SEARCH_HISTORY = "search_history";
     private static final String TABLE_WEATHER_CACHE = "weather_cache";
+    private static final String TABLE_WEATHER_SLOTS = "weather_forecast_slots";
+    private static final String TABLE_VENUES_FTS = "venues_fts";
+    private static final String TABLE_AMENITIES = "amenities";
+    private static final String TABLE_VENUE_AMENITIES = "venue_amenities";
+    private static final String TABLE_VENUE_TRENDING = "venue_trending";
+    private static final String TABLE_USER_PROFILE = "user_preference_profile";
+    private static final String TABLE_USER_PREFERENCES = "user_preference_histogram";
+    private static final String TABLE_OSM_SYNC = "osm_sync_state";
 
     // Venues table columns
     private static final String COLUMN_ID = "id";
@@ -58,14 +88,38 @@ public class DatabaseHelper extends SQLiteOpenHelper {
     private static final String COLUMN_WEBSITE = "website";
     private static final String COLUMN_UPDATED_AT = "updated_at";
     private static final String COLUMN_VIEW_COUNT = "view_count"; // Added constant
+    private static final String COLUMN_GEO_CELL = "geo_cell"; // GeoGrid cell id, spatial index key
+    private static final String COLUMN_AMENITY_MASK = "amenity_mask"; // AmenityCatalog bits
+    private static final String COLUMN_COVER_IMAGE = "cover_image"; // First entry of images, for list rows
+    private static final String COLUMN_CONTENT_HASH = "content_hash"; // Fingerprint of OSM-derived fields
+
+    // Trending table columns
+    private static final String COLUMN_TRENDING_SCORE = "score";
+    private static final String COLUMN_LAST_EVENT_AT = "last_event_at";
+
+    // User preference columns
+    private static final String COLUMN_BOOKING_COUNT = "booking_count";
+    private static final String COLUMN_FAVORITE_COUNT = "favorite_count";
+    private static final String COLUMN_GUEST_COUNT_SUM = "guest_count_sum";
+    private static final String COLUMN_PRICE_COUNT = "price_count";
+    private static final String COLUMN_PRICE_SUM = "price_sum";
+    private static final String COLUMN_PRICE_MIN = "price_min";
+    private static final String COLUMN_PRICE_MAX = "price_max";
+    private static final String COLUMN_DIMENSION = "dimension";
+    private static final String COLUMN_VALUE = "value";
+    private static final String COLUMN_WEIGHT = "weight";
+
+    // Amenity catalogue columns
+    private static final String COLUMN_AMENITY_ID = "amenity_id";
+    private static final String COLUMN_AMENITY_CODE = "code";
 
     // User columns
     private static final String COLUMN_USER_ID = "user_id";
 
     // AI Recommendations table columns
-    private static final String COLUMN_RECOMMENDATION_ID = "recommendation_id";
     private static final String COLUMN_EVENT_ID = "event_id";
-    private static final String COLUMN_RECOMMENDATION_DATA = "recommendation_data";
+    private static final String COLUMN_RANK = "rank";
+    private static final String COLUMN_SCORE = "score";
     private static final String COLUMN_CREATED_AT = "created_at";
 
     // Search History table columns
@@ -76,12 +130,23 @@ public class DatabaseHelper extends SQLiteOpenHelper {
 
     // Weather Cache table columns
     private static final String COLUMN_WEATHER_ID = "weather_id";
-    private static final String COLUMN_WEATHER_LAT = "weather_lat";
-    private static final String COLUMN_WEATHER_LNG = "weather_lng";
+    private static final String COLUMN_WEATHER_CELL = "weather_cell";
     private static final String COLUMN_WEATHER_DATE = "weather_date";
     private static final String COLUMN_WEATHER_DATA = "weather_data";
     private static final String COLUMN_EXPIRES_AT = "expires_at";
 
+    // OSM sync state columns
+    private static final String COLUMN_TILE_KEY = "tile_key";
+    private static final String COLUMN_SYNCED_THROUGH = "synced_through";
+
+    // Forecast slot columns
+    private static final String COLUMN_SLOT_TIME = "slot_time";
+    private static final String COLUMN_WEATHER_CONDITION = "weather_condition";
+    private static final String COLUMN_TEMPERATURE = "temperature";
+    private static final String COLUMN_HUMIDITY = "humidity";
+    private static final String COLUMN_WIND_SPEED = "wind_speed";
+    private static final String COLUMN_PRECIPITATION = "precipitation";
+
     // Fixed CREATE TABLE statement with view_count column
     private static final String CREATE_TABLE_VENUES =
             "CREATE TABLE " + TABLE_VENUES + "("
@@ -103,8 +168,12 @@ public class DatabaseHelper extends SQLiteOpenHelper {
                     + COLUMN_CONTACT + " TEXT,"
                     + COLUMN_EMAIL + " TEXT,"
                     + COLUMN_WEBSITE + " TEXT,"
-                    + COLUMN_UPDATED_AT + " DATETIME DEFAULT CURRENT_TIMESTAMP,"
-                    + COLUMN_VIEW_COUNT + " INTEGER DEFAULT 0"
+                    + COLUMN_UPDATED_AT + " INTEGER DEFAULT " + NOW_MILLIS + ","
+                    + COLUMN_VIEW_COUNT + " INTEGER DEFAULT 0,"
+                    + COLUMN_GEO_CELL + " INTEGER,"
+                    + COLUMN_AMENITY_MASK + " INTEGER DEFAULT 0,"
+                    + COLUMN_COVER_IMAGE + " TEXT,"
+                    + COLUMN_CONTENT_HASH + " TEXT"
                     + ")";
 
     private static final String CREATE_TABLE_BOOKINGS =
@@ -113,13 +182,13 @@ public class DatabaseHelper extends SQLiteOpenHelper {
                     + COLUMN_VENUE_ID + " TEXT,"
                     + COLUMN_USER_ID + " TEXT,"
                     + "event_name TEXT,"
-                    + "event_date TEXT,"
+                    + "event_date INTEGER,"
                     + "event_time TEXT,"
                     + "guest_count INTEGER,"
                     + "total_amount REAL,"
                     + "booking_status TEXT DEFAULT 'pending',"
                     + "payment_status TEXT DEFAULT 'pending',"
-                    + "created_at DATETIME DEFAULT CURRENT_TIMESTAMP"
+                    + "created_at INTEGER DEFAULT " + NOW_MILLIS
                     + ")";
 
     private static final String CREATE_TABLE_FAVORITES =
@@ -127,17 +196,25 @@ public class DatabaseHelper extends SQLiteOpenHelper {
                     + "favorite_id INTEGER PRIMARY KEY AUTOINCREMENT,"
                     + COLUMN_VENUE_ID + " TEXT,"
                     + COLUMN_USER_ID + " TEXT,"
-                    + "added_at DATETIME DEFAULT CURRENT_TIMESTAMP,"
+                    + "added_at INTEGER DEFAULT " + NOW_MILLIS + ","
                     + "UNIQUE(" + COLUMN_VENUE_ID + ", " + COLUMN_USER_ID + ")"
                     + ")";
 
+    // One row per recommended venue; the venue itself is read from the venues table.
+    // created_at is epoch millis, expired after Constants.CACHE_DURATION_RECOMMENDATIONS
     private static final String CREATE_TABLE_AI_RECOMMENDATIONS =
             "CREATE TABLE " + TABLE_AI_RECOMMENDATIONS + "("
-                    + COLUMN_RECOMMENDATION_ID + " INTEGER PRIMARY KEY AUTOINCREMENT,"
-                    + COLUMN_EVENT_ID + " TEXT,"
-                    + COLUMN_RECOMMENDATION_DATA + " TEXT,"
-                    + COLUMN_CREATED_AT + " DATETIME DEFAULT CURRENT_TIMESTAMP"
-                    + ")";
+                    + COLUMN_EVENT_ID + " TEXT NOT NULL,"
+                    + COLUMN_RANK + " INTEGER NOT NULL,"
+                    + COLUMN_VENUE_ID + " TEXT NOT NULL,"
+                    + COLUMN_SCORE + " REAL,"
+                    + COLUMN_CREATED_AT + " INTEGER NOT NULL,"
+                    + "PRIMARY KEY(" + COLUMN_EVENT_ID + ", " + COLUMN_RANK + ")"
+                    + ") WITHOUT ROWID";
+
+    private static final String CREATE_AI_RECOMMENDATIONS_CREATED_INDEX =
+            "CREATE INDEX IF NOT EXISTS idx_ai_recommendations_created ON " + TABLE_AI_RECOMMENDATIONS
+                    + "(" + COLUMN_CREATED_AT + ")";
 
     private static final String CREATE_TABLE_SEARCH_HISTORY =
             "CREATE TABLE " + TABLE_SEARCH_HISTORY + "("
@@ -146,45 +223,294 @@ public class DatabaseHelper extends SQLiteOpenHelper {
                     + COLUMN_SEARCH_QUERY + " TEXT,"
                     + COLUMN_SEARCH_FILTERS + " TEXT,"
                     + COLUMN_RESULT_COUNT + " INTEGER,"
-                    + "searched_at DATETIME DEFAULT CURRENT_TIMESTAMP"
+                    + "searched_at INTEGER DEFAULT " + NOW_MILLIS
                     + ")";
 
+    // Keyed by GeoGrid weather cell, so nearby coordinates share one entry. The UNIQUE
+    // constraint doubles as the (cell, date) lookup index
     private static final String CREATE_TABLE_WEATHER_CACHE =
             "CREATE TABLE " + TABLE_WEATHER_CACHE + "("
                     + COLUMN_WEATHER_ID + " INTEGER PRIMARY KEY AUTOINCREMENT,"
-                    + COLUMN_WEATHER_LAT + " REAL,"
-                    + COLUMN_WEATHER_LNG + " REAL,"
-                    + COLUMN_WEATHER_DATE + " TEXT,"
+                    + COLUMN_WEATHER_CELL + " INTEGER NOT NULL,"
+                    + COLUMN_WEATHER_DATE + " TEXT NOT NULL,"
                     + COLUMN_WEATHER_DATA + " TEXT,"
-                    + COLUMN_EXPIRES_AT + " DATETIME,"
-                    + "UNIQUE(" + COLUMN_WEATHER_LAT + ", " + COLUMN_WEATHER_LNG + ", " + COLUMN_WEATHER_DATE + ")"
+                    + COLUMN_EXPIRES_AT + " INTEGER,"
+                    + "UNIQUE(" + COLUMN_WEATHER_CELL + ", " + COLUMN_WEATHER_DATE + ")"
+                    + ")";
+
+    // Every 3-hourly slot of the last 5-day forecast fetched for a weather cell (slot_time in millis)
+    private static final String CREATE_TABLE_WEATHER_SLOTS =
+            "CREATE TABLE IF NOT EXISTS " + TABLE_WEATHER_SLOTS + "("
+                    + COLUMN_WEATHER_CELL + " INTEGER NOT NULL,"
+                    + COLUMN_SLOT_TIME + " INTEGER NOT NULL,"
+                    + COLUMN_WEATHER_CONDITION + " TEXT,"
+                    + COLUMN_TEMPERATURE + " REAL,"
+                    + COLUMN_HUMIDITY + " INTEGER,"
+                    + COLUMN_WIND_SPEED + " REAL,"
+                    + COLUMN_PRECIPITATION + " REAL,"
+                    + COLUMN_EXPIRES_AT + " INTEGER NOT NULL,"
+                    + "PRIMARY KEY(" + COLUMN_WEATHER_CELL + ", " + COLUMN_SLOT_TIME + ")"
+                    + ") WITHOUT ROWID";
+
+    // Per Overpass query tile: the OSM data timestamp (epoch millis) it has been synced through
+    private static final String CREATE_TABLE_OSM_SYNC =
+            "CREATE TABLE IF NOT EXISTS " + TABLE_OSM_SYNC + "("
+                    + COLUMN_TILE_KEY + " TEXT PRIMARY KEY,"
+                    + COLUMN_SYNCED_THROUGH + " INTEGER NOT NULL"
+                    + ") WITHOUT ROWID";
+
+    // Score is forward-decayed (see trendingWeight), so ordering by it ranks by recent activity
+    private static final String CREATE_TABLE_VENUE_TRENDING =
+            "CREATE TABLE IF NOT EXISTS " + TABLE_VENUE_TRENDING + "("
+                    + COLUMN_VENUE_ID + " TEXT PRIMARY KEY,"
+                    + COLUMN_TRENDING_SCORE + " REAL NOT NULL DEFAULT 0,"
+                    + COLUMN_LAST_EVENT_AT + " INTEGER"
+                    + ")";
+
+    private static final String CREATE_TRENDING_SCORE_INDEX =
+            "CREATE INDEX IF NOT EXISTS idx_venue_trending_score ON " + TABLE_VENUE_TRENDING
+                    + "(" + COLUMN_TRENDING_SCORE + " DESC)";
+
+    // Trending: activity weights and the half-life of their contribution
+    private static final double TRENDING_WEIGHT_VIEW = 1;
+    private static final double TRENDING_WEIGHT_FAVORITE = 3;
+    private static final double TRENDING_WEIGHT_BOOKING = 5;
+    private static final long TRENDING_HALF_LIFE_MS = 7L * 24 * 3600000;
+    // Landmark for forward decay (2025-01-01 UTC). A double covers ~1000 half-lives past it.
+    private static final long TRENDING_EPOCH_MS = 1735689600000L;
+
+    // Running aggregates over the venues a user booked or favourited
+    private static final String CREATE_TABLE_USER_PROFILE =
+            "CREATE TABLE IF NOT EXISTS " + TABLE_USER_PROFILE + "("
+                    + COLUMN_USER_ID + " TEXT PRIMARY KEY,"
+                    + COLUMN_BOOKING_COUNT + " INTEGER NOT NULL DEFAULT 0,"
+                    + COLUMN_FAVORITE_COUNT + " INTEGER NOT NULL DEFAULT 0,"
+                    + COLUMN_GUEST_COUNT_SUM + " INTEGER NOT NULL DEFAULT 0,"
+                    + COLUMN_PRICE_COUNT + " INTEGER NOT NULL DEFAULT 0,"
+                    + COLUMN_PRICE_SUM + " REAL NOT NULL DEFAULT 0,"
+                    + COLUMN_PRICE_MIN + " REAL,"
+                    + COLUMN_PRICE_MAX + " REAL"
+                    + ")";
+
+    // Weighted histograms per user and dimension ("category", "city")
+    private static final String CREATE_TABLE_USER_PREFERENCES =
+            "CREATE TABLE IF NOT EXISTS " + TABLE_USER_PREFERENCES + "("
+                    + COLUMN_USER_ID + " TEXT NOT NULL,"
+                    + COLUMN_DIMENSION + " TEXT NOT NULL,"
+                    + COLUMN_VALUE + " TEXT NOT NULL,"
+                    + COLUMN_WEIGHT + " REAL NOT NULL DEFAULT 0,"
+                    + "PRIMARY KEY(" + COLUMN_USER_ID + ", " + COLUMN_DIMENSION + ", " + COLUMN_VALUE + ")"
+                    + ") WITHOUT ROWID";
+
+    private static final String CREATE_USER_PREFERENCES_INDEX =
+            "CREATE INDEX IF NOT EXISTS idx_user_preferences_weight ON " + TABLE_USER_PREFERENCES
+                    + "(" + COLUMN_USER_ID + ", " + COLUMN_DIMENSION + ", " + COLUMN_WEIGHT + " DESC)";
+
+    private static final long RECOMMENDATION_TTL_MS = Constants.CACHE_DURATION_RECOMMENDATIONS * 3600000L;
+
+    private static final String DIMENSION_CATEGORY = "category";
+    private static final String DIMENSION_CITY = "city";
+    private static final double PREFERENCE_WEIGHT_BOOKING = 2;
+    private static final double PREFERENCE_WEIGHT_FAVORITE = 1;
+
+    // amenity_id is the AmenityCatalog bit position
+    private static final String CREATE_TABLE_AMENITIES =
+            "CREATE TABLE IF NOT EXISTS " + TABLE_AMENITIES + "("
+                    + COLUMN_AMENITY_ID + " INTEGER PRIMARY KEY,"
+                    + COLUMN_AMENITY_CODE + " TEXT NOT NULL UNIQUE"
                     + ")";
 
+    private static final String CREATE_TABLE_VENUE_AMENITIES =
+            "CREATE TABLE IF NOT EXISTS " + TABLE_VENUE_AMENITIES + "("
+                    + COLUMN_VENUE_ID + " TEXT NOT NULL,"
+                    + COLUMN_AMENITY_ID + " INTEGER NOT NULL,"
+                    + "PRIMARY KEY(" + COLUMN_VENUE_ID + ", " + COLUMN_AMENITY_ID + ")"
+                    + ") WITHOUT ROWID";
+
+    // venue_amenities is derived from venues.amenity_mask, so every writer keeps it in sync
+    private static final String VENUE_AMENITIES_FROM_NEW_MASK =
+            "INSERT INTO " + TABLE_VENUE_AMENITIES + "(" + COLUMN_VENUE_ID + ", " + COLUMN_AMENITY_ID + ")"
+                    + " SELECT new." + COLUMN_ID + ", " + COLUMN_AMENITY_ID + " FROM " + TABLE_AMENITIES
+                    + " WHERE (new." + COLUMN_AMENITY_MASK + " >> " + COLUMN_AMENITY_ID + ") & 1;";
+
+    private static final String[] CREATE_VENUE_AMENITIES_TRIGGERS = {
+            "CREATE TRIGGER IF NOT EXISTS venue_amenities_ai AFTER INSERT ON " + TABLE_VENUES
+                    + " BEGIN " + VENUE_AMENITIES_FROM_NEW_MASK + " END",
+            "CREATE TRIGGER IF NOT EXISTS venue_amenities_au AFTER UPDATE OF " + COLUMN_AMENITY_MASK
+                    + " ON " + TABLE_VENUES + " BEGIN"
+                    + " DELETE FROM " + TABLE_VENUE_AMENITIES + " WHERE " + COLUMN_VENUE_ID + " = old." + COLUMN_ID + ";"
+                    + " " + VENUE_AMENITIES_FROM_NEW_MASK + " END",
+            "CREATE TRIGGER IF NOT EXISTS venue_amenities_ad AFTER DELETE ON " + TABLE_VENUES
+                    + " BEGIN DELETE FROM " + TABLE_VENUE_AMENITIES + " WHERE " + COLUMN_VENUE_ID + " = old." + COLUMN_ID + "; END"
+    };
+
     // Index creation statements
     private static final String CREATE_SPATIAL_INDEX =
-            "CREATE INDEX idx_venues_location ON " + TABLE_VENUES + "(" + COLUMN_LATITUDE + ", " + COLUMN_LONGITUDE + ")";
+            "CREATE INDEX IF NOT EXISTS idx_venues_location ON " + TABLE_VENUES + "(" + COLUMN_LATITUDE + ", " + COLUMN_LONGITUDE + ")";
 
     private static final String CREATE_CATEGORY_INDEX =
-            "CREATE INDEX idx_venues_category ON " + TABLE_VENUES + "(" + COLUMN_CATEGORY + ")";
+            "CREATE INDEX IF NOT EXISTS idx_venues_category ON " + TABLE_VENUES + "(" + COLUMN_CATEGORY + ")";
 
     private static final String CREATE_CITY_INDEX =
-            "CREATE INDEX idx_venues_city ON " + TABLE_VENUES + "(" + COLUMN_CITY + ")";
+            "CREATE INDEX IF NOT EXISTS idx_venues_city ON " + TABLE_VENUES + "(" + COLUMN_CITY + ")";
 
     private static final String CREATE_PRICE_INDEX =
-            "CREATE INDEX idx_venues_price ON " + TABLE_VENUES + "(" + COLUMN_PRICE_RANGE + ")";
+            "CREATE INDEX IF NOT EXISTS idx_venues_price ON " + TABLE_VENUES + "(" + COLUMN_PRICE_RANGE + ")";
 
     private static final String CREATE_RATING_INDEX =
-            "CREATE INDEX idx_venues_rating ON " + TABLE_VENUES + "(" + COLUMN_RATING + ")";
+            "CREATE INDEX IF NOT EXISTS idx_venues_rating ON " + TABLE_VENUES + "(" + COLUMN_RATING + ")";
 
     private static final String CREATE_TYPE_INDEX =
-            "CREATE INDEX idx_venues_type ON " + TABLE_VENUES + "(" + COLUMN_TYPE + ")";
+            "CREATE INDEX IF NOT EXISTS idx_venues_type ON " + TABLE_VENUES + "(" + COLUMN_TYPE + ")";
 
     private static final String CREATE_CAPACITY_INDEX =
-            "CREATE INDEX idx_venues_capacity ON " + TABLE_VENUES + "(" + COLUMN_CAPACITY + ")";
+            "CREATE INDEX IF NOT EXISTS idx_venues_capacity ON " + TABLE_VENUES + "(" + COLUMN_CAPACITY + ")";
+
+    // Keyset pagination orders: (name, id) and (rating DESC, id)
+    private static final String CREATE_NAME_PAGE_INDEX =
+            "CREATE INDEX IF NOT EXISTS idx_venues_name_id ON " + TABLE_VENUES + "(" + COLUMN_NAME + ", " + COLUMN_ID + ")";
+
+    private static final String CREATE_RATING_PAGE_INDEX =
+            "CREATE INDEX IF NOT EXISTS idx_venues_rating_id ON " + TABLE_VENUES + "(" + COLUMN_RATING + " DESC, " + COLUMN_ID + ")";
+
+    private static final String CREATE_VENUE_AMENITIES_INDEX =
+            "CREATE INDEX IF NOT EXISTS idx_venue_amenities_amenity ON " + TABLE_VENUE_AMENITIES
+                    + "(" + COLUMN_AMENITY_ID + ", " + COLUMN_VENUE_ID + ")";
+
+    private static final String CREATE_GEO_CELL_INDEX =
+            "CREATE INDEX IF NOT EXISTS idx_venues_geo_cell ON " + TABLE_VENUES + "(" + COLUMN_GEO_CELL + ")";
+
+    private static final String CREATE_SEARCH_HISTORY_SEARCHED_INDEX =
+            "CREATE INDEX IF NOT EXISTS idx_search_history_searched ON " + TABLE_SEARCH_HISTORY + "(searched_at)";
+
+    private static final String CREATE_SEARCH_HISTORY_USER_INDEX =
+            "CREATE INDEX IF NOT EXISTS idx_search_history_user ON " + TABLE_SEARCH_HISTORY
+                    + "(" + COLUMN_USER_ID + ", searched_at)";
+
+    private static final String CREATE_BOOKINGS_USER_INDEX =
+            "CREATE INDEX IF NOT EXISTS idx_bookings_user_created ON " + TABLE_BOOKINGS
+                    + "(" + COLUMN_USER_ID + ", created_at)";
+
+    private static final String CREATE_BOOKINGS_EVENT_DATE_INDEX =
+            "CREATE INDEX IF NOT EXISTS idx_bookings_event_date ON " + TABLE_BOOKINGS + "(event_date)";
+
+    private static final String CREATE_FAVORITES_USER_INDEX =
+            "CREATE INDEX IF NOT EXISTS idx_favorites_user_added ON " + TABLE_FAVORITES
+                    + "(" + COLUMN_USER_ID + ", added_at)";
+
+    // Every secondary index the schema expects; runMaintenance recreates any that went missing
+    private static final String[] MAINTAINED_INDEXES = {
+            CREATE_SPATIAL_INDEX,
+            CREATE_CATEGORY_INDEX,
+            CREATE_CITY_INDEX,
+            CREATE_PRICE_INDEX,
+            CREATE_RATING_INDEX,
+            CREATE_TYPE_INDEX,
+            CREATE_CAPACITY_INDEX,
+            CREATE_NAME_PAGE_INDEX,
+            CREATE_RATING_PAGE_INDEX,
+            CREATE_VENUE_AMENITIES_INDEX,
+            CREATE_GEO_CELL_INDEX,
+            CREATE_SEARCH_HISTORY_SEARCHED_INDEX,
+            CREATE_SEARCH_HISTORY_USER_INDEX,
+            CREATE_BOOKINGS_USER_INDEX,
+            CREATE_BOOKINGS_EVENT_DATE_INDEX,
+            CREATE_FAVORITES_USER_INDEX,
+            CREATE_AI_RECOMMENDATIONS_CREATED_INDEX,
+            CREATE_TRENDING_SCORE_INDEX,
+            CREATE_USER_PREFERENCES_INDEX
+    };
+
+    // Trending rows with no activity for this long have decayed to nothing
+    private static final long TRENDING_RETENTION_MS = 90L * 24 * 3600000;
+
+    // Keeps the OR'ed BETWEEN list of one spatial probe short enough for the query planner
+    private static final int MAX_CELL_RANGES_PER_QUERY = 50;
+
+    // Full-text index over venues. External content: the text lives only in venues and the
+    // index rows are keyed by venues.rowid, kept in sync by the triggers below.
+    private static final String FTS_COLUMNS = COLUMN_NAME + ", " + COLUMN_ADDRESS + ", "
+            + COLUMN_DESCRIPTION + ", " + COLUMN_AMENITIES + ", " + COLUMN_CATEGORY;
+    private static final String FTS_NEW_VALUES = "new." + COLUMN_NAME + ", new." + COLUMN_ADDRESS + ", new."
+            + COLUMN_DESCRIPTION + ", new." + COLUMN_AMENITIES + ", new." + COLUMN_CATEGORY;
+
+    // BM25 weight per FTS column, in FTS_COLUMNS order
+    private static final double[] FTS_COLUMN_WEIGHTS = {3.0, 1.0, 0.75, 1.0, 2.0};
+    private static final double BM25_K1 = 1.2;
+    private static final double BM25_B = 0.75;
+
+    private static final String CREATE_TABLE_VENUES_FTS =
+            "CREATE VIRTUAL TABLE IF NOT EXISTS " + TABLE_VENUES_FTS
+                    + " USING fts4(content=\"" + TABLE_VENUES + "\", " + FTS_COLUMNS + ")";
+
+    private static final String[] CREATE_VENUES_FTS_TRIGGERS = {
+            "CREATE TRIGGER IF NOT EXISTS venues_fts_bu BEFORE UPDATE OF " + FTS_COLUMNS + " ON " + TABLE_VENUES
+                    + " BEGIN DELETE FROM " + TABLE_VENUES_FTS + " WHERE docid = old.rowid; END",
+            "CREATE TRIGGER IF NOT EXISTS venues_fts_bd BEFORE DELETE ON " + TABLE_VENUES
+                    + " BEGIN DELETE FROM " + TABLE_VENUES_FTS + " WHERE docid = old.rowid; END",
+            "CREATE TRIGGER IF NOT EXISTS venues_fts_au AFTER UPDATE OF " + FTS_COLUMNS + " ON " + TABLE_VENUES
+                    + " BEGIN INSERT INTO " + TABLE_VENUES_FTS + "(docid, " + FTS_COLUMNS + ")"
+                    + " VALUES (new.rowid, " + FTS_NEW_VALUES + "); END",
+            "CREATE TRIGGER IF NOT EXISTS venues_fts_ai AFTER INSERT ON " + TABLE_VENUES
+                    + " BEGIN INSERT INTO " + TABLE_VENUES_FTS + "(docid, " + FTS_COLUMNS + ")"
+                    + " VALUES (new.rowid, " + FTS_NEW_VALUES + "); END"
+    };
+
+    // Nearest-neighbour search: first ring radius, and the radius at which it gives up widening
+    private static final double NEAREST_START_RADIUS_KM = 1;
+    private static final double NEAREST_MAX_RADIUS_KM = 1000;
+
+    // Number of nearest venues gathered for local scoring
+    private static final int SCORE_CANDIDATE_COUNT = 100;
+
+    // Bulk upsert: content columns compared to detect unchanged rows, in bind order
+    private static final String[] VENUE_UPSERT_COLUMNS = {
+            COLUMN_NAME, COLUMN_ADDRESS, COLUMN_CITY, COLUMN_CATEGORY, COLUMN_TYPE,
+            COLUMN_CAPACITY, COLUMN_PRICE_RANGE, COLUMN_RATING, COLUMN_REVIEW_COUNT,
+            COLUMN_LATITUDE, COLUMN_LONGITUDE, COLUMN_IMAGES, COLUMN_AMENITIES,
+            COLUMN_DESCRIPTION, COLUMN_CONTACT, COLUMN_EMAIL, COLUMN_WEBSITE, COLUMN_GEO_CELL,
+            COLUMN_AMENITY_MASK, COLUMN_COVER_IMAGE, COLUMN_CONTENT_HASH
+    };
+    private static final String VENUE_UPSERT_UPDATE_SQL = buildVenueUpsertUpdateSql();
+    private static final String VENUE_UPSERT_INSERT_SQL = buildVenueUpsertInsertSql();
+
+    // Columns read for VenueSummary rows
+    private static final String SUMMARY_PROJECTION = COLUMN_ID + ", " + COLUMN_NAME + ", " + COLUMN_ADDRESS + ", "
+            + COLUMN_CITY + ", " + COLUMN_CATEGORY + ", " + COLUMN_TYPE + ", " + COLUMN_CAPACITY + ", "
+            + COLUMN_PRICE_RANGE + ", " + COLUMN_RATING + ", " + COLUMN_REVIEW_COUNT + ", "
+            + COLUMN_LATITUDE + ", " + COLUMN_LONGITUDE + ", " + COLUMN_COVER_IMAGE + ", " + COLUMN_AMENITY_MASK;
+
+    // Rows per transaction, so huge ingestions don't hold the write lock or grow the WAL unbounded
+    private static final int UPSERT_CHUNK_SIZE = 500;
+
+    // Venues a booking or favorite points at must outlive their source data
+    private static final String VENUE_UNREFERENCED =
+            COLUMN_ID + " NOT IN (SELECT " + COLUMN_VENUE_ID + " FROM " + TABLE_BOOKINGS
+                    + " WHERE " + COLUMN_VENUE_ID + " IS NOT NULL)"
+                    + " AND " + COLUMN_ID + " NOT IN (SELECT " + COLUMN_VENUE_ID + " FROM " + TABLE_FAVORITES
+                    + " WHERE " + COLUMN_VENUE_ID + " IS NOT NULL)";
 
     // Constructor
-    public DatabaseHelper(Context context) {
-        super(context, DATABASE_NAME, null, DATABASE_VERSION);
+    private DatabaseHelper(Context context) {
+        this(context, DATABASE_NAME);
+    }
+
+    // A separate database file, so benchmarks don't touch the app's data; use getInstance otherwise
+    DatabaseHelper(Context context, String name) {
+        super(context, name, null, DATABASE_VERSION);
+        // WAL lets UI reads run concurrently with background writes
+        setWriteAheadLoggingEnabled(true);
+    }
+
+    public static DatabaseHelper getInstance(Context context) {
+        if (instance == null) {
+            synchronized (DatabaseHelper.class) {
+                if (instance == null) {
+                    instance = new DatabaseHelper(context.getApplicationContext());
+                }
+            }
+        }
+        return instance;
     }
 
     @Override
@@ -194,8 +520,16 @@ public class DatabaseHelper extends SQLiteOpenHelper {
         db.execSQL(CREATE_TABLE_BOOKINGS);
         db.execSQL(CREATE_TABLE_FAVORITES);
         db.execSQL(CREATE_TABLE_AI_RECOMMENDATIONS);
+        db.execSQL(CREATE_AI_RECOMMENDATIONS_CREATED_INDEX);
         db.execSQL(CREATE_TABLE_SEARCH_HISTORY);
+        db.execSQL(CREATE_SEARCH_HISTORY_SEARCHED_INDEX);
+        db.execSQL(CREATE_SEARCH_HISTORY_USER_INDEX);
+        db.execSQL(CREATE_BOOKINGS_USER_INDEX);
+        db.execSQL(CREATE_BOOKINGS_EVENT_DATE_INDEX);
+        db.execSQL(CREATE_FAVORITES_USER_INDEX);
         db.execSQL(CREATE_TABLE_WEATHER_CACHE);
+        db.execSQL(CREATE_TABLE_WEATHER_SLOTS);
+        db.execSQL(CREATE_TABLE_OSM_SYNC);
 
         // Create indexes
         db.execSQL(CREATE_SPATIAL_INDEX);
@@ -205,6 +539,15 @@ public class DatabaseHelper extends SQLiteOpenHelper {
         db.execSQL(CREATE_RATING_INDEX);
         db.execSQL(CREATE_TYPE_INDEX);
         db.execSQL(CREATE_CAPACITY_INDEX);
+        db.execSQL(CREATE_GEO_CELL_INDEX);
+        db.execSQL(CREATE_NAME_PAGE_INDEX);
+        db.execSQL(CREATE_RATING_PAGE_INDEX);
+
+        createVenuesFts(db);
+        createAmenityTables(db);
+        db.execSQL(CREATE_TABLE_VENUE_TRENDING);
+        db.execSQL(CREATE_TRENDING_SCORE_INDEX);
+        createPreferenceTables(db);
 
         Log.d("DatabaseHelper", "Database created successfully");
     }
@@ -217,6 +560,66 @@ public class DatabaseHelper extends SQLiteOpenHelper {
         if (oldVersion < 6) {
             upgradeToVersion6(db);
         }
+        if (oldVersion < 7) {
+            upgradeToVersion7(db);
+        }
+        if (oldVersion < 8) {
+            createVenuesFts(db);
+            rebuildVenuesFts(db);
+            Log.d("DatabaseHelper", "Created and populated " + TABLE_VENUES_FTS);
+        }
+        if (oldVersion < 9) {
+            upgradeToVersion9(db);
+        }
+        if (oldVersion < 10) {
+            upgradeToVersion10(db);
+        }
+        if (oldVersion < 11) {
+            db.execSQL(CREATE_NAME_PAGE_INDEX);
+            db.execSQL(CREATE_RATING_PAGE_INDEX);
+        }
+        if (oldVersion < 12) {
+            upgradeToVersion12(db);
+        }
+        if (oldVersion < 13) {
+            upgradeToVersion13(db);
+        }
+        if (oldVersion < 14) {
+            // Old rows are JSON snapshots of whole venue lists; they are only a cache, so start over
+            db.execSQL("DROP TABLE IF EXISTS " + TABLE_AI_RECOMMENDATIONS);
+            db.execSQL(CREATE_TABLE_AI_RECOMMENDATIONS);
+            db.execSQL(CREATE_AI_RECOMMENDATIONS_CREATED_INDEX);
+        }
+        if (oldVersion < 15) {
+            // Entries were keyed by exact coordinates; they expire within a day, so just start over
+            db.execSQL("DROP TABLE IF EXISTS " + TABLE_WEATHER_CACHE);
+            db.execSQL(CREATE_TABLE_WEATHER_CACHE);
+        }
+        if (oldVersion < 16) {
+            db.execSQL(CREATE_TABLE_WEATHER_SLOTS);
+        }
+        if (oldVersion < 17) {
+            db.execSQL(CREATE_SEARCH_HISTORY_SEARCHED_INDEX);
+        }
+        if (oldVersion < 18) {
+            upgradeToVersion18(db);
+        }
+        if (oldVersion < 19) {
+            // OSM venues were keyed osm_<id>_<city>, so overlapping cities stored the same element
+            // more than once; they are now keyed osm_<type><id> and come back on the next refresh.
+            // Rows still referenced by a booking or favorite are left alone
+            db.execSQL("DELETE FROM " + TABLE_VENUES + " WHERE " + COLUMN_ID + " GLOB 'osm_[0-9]*_*'"
+                    + " AND " + VENUE_UNREFERENCED);
+        }
+        if (oldVersion < 20) {
+            db.execSQL(CREATE_TABLE_OSM_SYNC);
+        }
+        if (oldVersion < 21) {
+            // Existing rows have no fingerprint, so the next OSM refresh rewrites them once
+            if (!isColumnExists(db, TABLE_VENUES, COLUMN_CONTENT_HASH)) {
+                db.execSQL("ALTER TABLE " + TABLE_VENUES + " ADD COLUMN " + COLUMN_CONTENT_HASH + " TEXT");
+            }
+        }
     }
 
     private void upgradeToVersion6(SQLiteDatabase db) {
@@ -231,6 +634,199 @@ public class DatabaseHelper extends SQLiteOpenHelper {
         }
     }
 
+    private void upgradeToVersion7(SQLiteDatabase db) {
+        if (!isColumnExists(db, TABLE_VENUES, COLUMN_GEO_CELL)) {
+            db.execSQL("ALTER TABLE " + TABLE_VENUES + " ADD COLUMN " + COLUMN_GEO_CELL + " INTEGER");
+        }
+
+        // Backfill cell ids in Java; the formula must match GeoGrid exactly
+        SQLiteStatement update = db.compileStatement("UPDATE " + TABLE_VENUES +
+                " SET " + COLUMN_GEO_CELL + " = ? WHERE " + COLUMN_ID + " = ?");
+        Cursor cursor = db.rawQuery("SELECT " + COLUMN_ID + ", " + COLUMN_LATITUDE + ", " + COLUMN_LONGITUDE +
+                " FROM " + TABLE_VENUES +
+                " WHERE " + COLUMN_LATITUDE + " IS NOT NULL AND " + COLUMN_LONGITUDE + " IS NOT NULL", null);
+        int backfilled = 0;
+        try {
+            while (cursor.moveToNext()) {
+                update.bindLong(1, GeoGrid.cellOf(cursor.getDouble(1), cursor.getDouble(2)));
+                update.bindString(2, cursor.getString(0));
+                update.executeUpdateDelete();
+                backfilled++;
+            }
+        } finally {
+            cursor.close();
+            update.close();
+        }
+
+        db.execSQL(CREATE_GEO_CELL_INDEX);
+        Log.d("DatabaseHelper", "Added " + COLUMN_GEO_CELL + " index, backfilled " + backfilled + " venues");
+    }
+
+    private void upgradeToVersion9(SQLiteDatabase db) {
+        if (!isColumnExists(db, TABLE_VENUES, COLUMN_AMENITY_MASK)) {
+            db.execSQL("ALTER TABLE " + TABLE_VENUES + " ADD COLUMN " + COLUMN_AMENITY_MASK + " INTEGER DEFAULT 0");
+        }
+        createAmenityTables(db);
+
+        // Decode each venue's amenity JSON one last time; the update trigger fills venue_amenities
+        SQLiteStatement update = db.compileStatement("UPDATE " + TABLE_VENUES +
+                " SET " + COLUMN_AMENITY_MASK + " = ? WHERE " + COLUMN_ID + " = ?");
+        Cursor cursor = db.rawQuery("SELECT " + COLUMN_ID + ", " + COLUMN_AMENITIES + " FROM " + TABLE_VENUES +
+                " WHERE " + COLUMN_AMENITIES + " IS NOT NULL", null);
+        Type listType = new TypeToken<List<String>>(){}.getType();
+        int backfilled = 0;
+        try {
+            while (cursor.moveToNext()) {
+                List<String> amenities = gson.fromJson(cursor.getString(1), listType);
+                long mask = AmenityCatalog.maskOf(amenities);
+                if (mask == 0) continue;
+
+                update.bindLong(1, mask);
+                update.bindString(2, cursor.getString(0));
+                update.executeUpdateDelete();
+                backfilled++;
+            }
+        } catch (Exception e) {
+            Log.e("DatabaseHelper", "Error backfilling amenity masks: " + e.getMessage());
+        } finally {
+            cursor.close();
+            update.close();
+        }
+        Log.d("DatabaseHelper", "Backfilled amenity masks for " + backfilled + " venues");
+    }
+
+    private void upgradeToVersion10(SQLiteDatabase db) {
+        if (!isColumnExists(db, TABLE_VENUES, COLUMN_COVER_IMAGE)) {
+            db.execSQL("ALTER TABLE " + TABLE_VENUES + " ADD COLUMN " + COLUMN_COVER_IMAGE + " TEXT");
+        }
+
+        SQLiteStatement update = db.compileStatement("UPDATE " + TABLE_VENUES +
+                " SET " + COLUMN_COVER_IMAGE + " = ? WHERE " + COLUMN_ID + " = ?");
+        Cursor cursor = db.rawQuery("SELECT " + COLUMN_ID + ", " + COLUMN_IMAGES + " FROM " + TABLE_VENUES +
+                " WHERE " + COLUMN_IMAGES + " IS NOT NULL", null);
+        Type listType = new TypeToken<List<String>>(){}.getType();
+        try {
+            while (cursor.moveToNext()) {
+                List<String> images = gson.fromJson(cursor.getString(1), listType);
+                if (images == null || images.isEmpty() || images.get(0) == null) continue;
+
+                update.bindString(1, images.get(0));
+                update.bindString(2, cursor.getString(0));
+                update.executeUpdateDelete();
+            }
+        } catch (Exception e) {
+            Log.e("DatabaseHelper", "Error backfilling cover images: " + e.getMessage());
+        } finally {
+            cursor.close();
+            update.close();
+        }
+    }
+
+    private void upgradeToVersion12(SQLiteDatabase db) {
+        db.execSQL(CREATE_TABLE_VENUE_TRENDING);
+        db.execSQL(CREATE_TRENDING_SCORE_INDEX);
+
+        // Seed from lifetime view counts, treated as if they had all happened at upgrade time
+        long now = System.currentTimeMillis();
+        db.execSQL("INSERT OR IGNORE INTO " + TABLE_VENUE_TRENDING +
+                        "(" + COLUMN_VENUE_ID + ", " + COLUMN_TRENDING_SCORE + ", " + COLUMN_LAST_EVENT_AT + ")" +
+                        " SELECT " + COLUMN_ID + ", " + COLUMN_VIEW_COUNT + " * ?, ? FROM " + TABLE_VENUES +
+                        " WHERE " + COLUMN_VIEW_COUNT + " > 0",
+                new Object[]{trendingWeight(TRENDING_WEIGHT_VIEW, now), now});
+    }
+
+    private void upgradeToVersion13(SQLiteDatabase db) {
+        createPreferenceTables(db);
+
+        // Rebuild profiles from existing history with the same weights the live updates use
+        String signals = "SELECT " + COLUMN_USER_ID + ", " + COLUMN_VENUE_ID + ", 1 AS is_booking, guest_count AS guests, "
+                + PREFERENCE_WEIGHT_BOOKING + " AS w FROM " + TABLE_BOOKINGS
+                + " UNION ALL SELECT " + COLUMN_USER_ID + ", " + COLUMN_VENUE_ID + ", 0, 0, "
+                + PREFERENCE_WEIGHT_FAVORITE + " FROM " + TABLE_FAVORITES;
+
+        db.execSQL("INSERT OR REPLACE INTO " + TABLE_USER_PROFILE + "(" + COLUMN_USER_ID + ", "
+                + COLUMN_BOOKING_COUNT + ", " + COLUMN_FAVORITE_COUNT + ", " + COLUMN_GUEST_COUNT_SUM + ", "
+                + COLUMN_PRICE_COUNT + ", " + COLUMN_PRICE_SUM + ", " + COLUMN_PRICE_MIN + ", " + COLUMN_PRICE_MAX + ")"
+                + " SELECT s." + COLUMN_USER_ID + ", SUM(s.is_booking), SUM(1 - s.is_booking), IFNULL(SUM(s.guests), 0),"
+                + " COUNT(v." + COLUMN_ID + "), IFNULL(SUM(v." + COLUMN_PRICE_RANGE + "), 0),"
+                + " MIN(v." + COLUMN_PRICE_RANGE + "), MAX(v." + COLUMN_PRICE_RANGE + ")"
+                + " FROM (" + signals + ") s LEFT JOIN " + TABLE_VENUES + " v ON v." + COLUMN_ID + " = s." + COLUMN_VENUE_ID
+                + " WHERE s." + COLUMN_USER_ID + " IS NOT NULL GROUP BY s." + COLUMN_USER_ID);
+
+        for (String dimension : new String[]{DIMENSION_CATEGORY, DIMENSION_CITY}) {
+            String column = DIMENSION_CATEGORY.equals(dimension) ? COLUMN_CATEGORY : COLUMN_CITY;
+            db.execSQL("INSERT OR REPLACE INTO " + TABLE_USER_PREFERENCES + "(" + COLUMN_USER_ID + ", "
+                            + COLUMN_DIMENSION + ", " + COLUMN_VALUE + ", " + COLUMN_WEIGHT + ")"
+                            + " SELECT s." + COLUMN_USER_ID + ", ?, v." + column + ", SUM(s.w)"
+                            + " FROM (" + signals + ") s INNER JOIN " + TABLE_VENUES + " v ON v." + COLUMN_ID + " = s." + COLUMN_VENUE_ID
+                            + " WHERE s." + COLUMN_USER_ID + " IS NOT NULL AND v." + column + " IS NOT NULL"
+                            + " GROUP BY s." + COLUMN_USER_ID + ", v." + column,
+                    new Object[]{dimension});
+        }
+    }
+
+    private void upgradeToVersion18(SQLiteDatabase db) {
+        // CURRENT_TIMESTAMP defaults were UTC; venues.updated_at and event_date were written in
+        // local time, hence the 'utc' modifier. Columns keep their old declared default, so every
+        // insert now writes these columns explicitly
+        convertToEpochMillis(db, TABLE_VENUES, COLUMN_UPDATED_AT, true);
+        convertToEpochMillis(db, TABLE_BOOKINGS, "event_date", true);
+        convertToEpochMillis(db, TABLE_BOOKINGS, "created_at", false);
+        convertToEpochMillis(db, TABLE_FAVORITES, "added_at", false);
+        convertToEpochMillis(db, TABLE_SEARCH_HISTORY, "searched_at", false);
+
+        db.execSQL(CREATE_SEARCH_HISTORY_USER_INDEX);
+        db.execSQL(CREATE_BOOKINGS_USER_INDEX);
+        db.execSQL(CREATE_BOOKINGS_EVENT_DATE_INDEX);
+        db.execSQL(CREATE_FAVORITES_USER_INDEX);
+    }
+
+    private void convertToEpochMillis(SQLiteDatabase db, String table, String column, boolean localTime) {
+        db.execSQL("UPDATE " + table + " SET " + column + " = CAST(strftime('%s', " + column +
+                (localTime ? ", 'utc'" : "") + ") AS INTEGER) * 1000" +
+                " WHERE typeof(" + column + ") = 'text'");
+    }
+
+    private void createPreferenceTables(SQLiteDatabase db) {
+        db.execSQL(CREATE_TABLE_USER_PROFILE);
+        db.execSQL(CREATE_TABLE_USER_PREFERENCES);
+        db.execSQL(CREATE_USER_PREFERENCES_INDEX);
+    }
+
+    private void createAmenityTables(SQLiteDatabase db) {
+        db.execSQL(CREATE_TABLE_AMENITIES);
+        db.execSQL(CREATE_TABLE_VENUE_AMENITIES);
+        db.execSQL(CREATE_VENUE_AMENITIES_INDEX);
+
+        SQLiteStatement insert = db.compileStatement("INSERT OR IGNORE INTO " + TABLE_AMENITIES +
+                "(" + COLUMN_AMENITY_ID + ", " + COLUMN_AMENITY_CODE + ") VALUES (?, ?)");
+        try {
+            for (String code : AmenityCatalog.CODES) {
+                insert.bindLong(1, AmenityCatalog.bitOf(code));
+                insert.bindString(2, code);
+                insert.executeInsert();
+            }
+        } finally {
+            insert.close();
+        }
+
+        for (String trigger : CREATE_VENUE_AMENITIES_TRIGGERS) {
+            db.execSQL(trigger);
+        }
+    }
+
+    private void createVenuesFts(SQLiteDatabase db) {
+        db.execSQL(CREATE_TABLE_VENUES_FTS);
+        for (String trigger : CREATE_VENUES_FTS_TRIGGERS) {
+            db.execSQL(trigger);
+        }
+    }
+
+    // Re-reads every row of venues into the index, e.g. after VACUUM renumbered rowids
+    private void rebuildVenuesFts(SQLiteDatabase db) {
+        db.execSQL("INSERT INTO " + TABLE_VENUES_FTS + "(" + TABLE_VENUES_FTS + ") VALUES('rebuild')");
+    }
+
     private boolean isColumnExists(SQLiteDatabase db, String tableName, String columnName) {
         Cursor cursor = null;
         try {
@@ -264,12 +860,19 @@ public class DatabaseHelper extends SQLiteOpenHelper {
     }
 
     private void dropAllTables(SQLiteDatabase db) {
+        db.execSQL("DROP TABLE IF EXISTS " + TABLE_VENUES_FTS);
+        db.execSQL("DROP TABLE IF EXISTS " + TABLE_VENUE_AMENITIES);
+        db.execSQL("DROP TABLE IF EXISTS " + TABLE_AMENITIES);
+        db.execSQL("DROP TABLE IF EXISTS " + TABLE_VENUE_TRENDING);
+        db.execSQL("DROP TABLE IF EXISTS " + TABLE_USER_PROFILE);
+        db.execSQL("DROP TABLE IF EXISTS " + TABLE_USER_PREFERENCES);
         db.execSQL("DROP TABLE IF EXISTS " + TABLE_VENUES);
         db.execSQL("DROP TABLE IF EXISTS " + TABLE_BOOKINGS);
         db.execSQL("DROP TABLE IF EXISTS " + TABLE_FAVORITES);
         db.execSQL("DROP TABLE IF EXISTS " + TABLE_AI_RECOMMENDATIONS);
         db.execSQL("DROP TABLE IF EXISTS " + TABLE_SEARCH_HISTORY);
         db.execSQL("DROP TABLE IF EXISTS " + TABLE_WEATHER_CACHE);
+        db.execSQL("DROP TABLE IF EXISTS " + TABLE_WEATHER_SLOTS);
 
         // Drop indexes
         db.execSQL("DROP INDEX IF EXISTS idx_venues_location");
@@ -279,49 +882,141 @@ public class DatabaseHelper extends SQLiteOpenHelper {
         db.execSQL("DROP INDEX IF EXISTS idx_venues_rating");
         db.execSQL("DROP INDEX IF EXISTS idx_venues_type");
         db.execSQL("DROP INDEX IF EXISTS idx_venues_capacity");
+        db.execSQL("DROP INDEX IF EXISTS idx_venues_geo_cell");
+        db.execSQL("DROP INDEX IF EXISTS idx_venues_name_id");
+        db.execSQL("DROP INDEX IF EXISTS idx_venues_rating_id");
     }
 
     // ==================== VENUE METHODS ====================
 
     public long insertVenue(Venue venue) {
+        UpsertResult result = upsertVenues(Collections.singletonList(venue));
+        Log.d("DatabaseHelper", "Upserted venue: " + venue.getName() + " (ID: " + venue.getId() + ")");
+        return result.inserted + result.updated;
+    }
+
+    /**
+     * Writes venues in one transaction per chunk using two statements compiled once per call:
+     * an UPDATE that only touches rows whose content differs, then an INSERT OR IGNORE for
+     * rows that do not exist yet. Unlike CONFLICT_REPLACE this keeps view_count intact.
+     */
+    public UpsertResult upsertVenues(Collection<Venue> venues) {
+        UpsertResult result = new UpsertResult();
+        if (venues == null || venues.isEmpty()) return result;
+
         SQLiteDatabase db = this.getWritableDatabase();
-        ContentValues values = new ContentValues();
+        SQLiteStatement updateStatement = db.compileStatement(VENUE_UPSERT_UPDATE_SQL);
+        SQLiteStatement insertStatement = db.compileStatement(VENUE_UPSERT_INSERT_SQL);
+        long updatedAt = System.currentTimeMillis();
 
-        values.put(COLUMN_ID, venue.getId());
-        values.put(COLUMN_NAME, venue.getName());
-        values.put(COLUMN_ADDRESS, venue.getAddress());
-        values.put(COLUMN_CITY, venue.getCity());
-        values.put(COLUMN_CATEGORY, venue.getCategory());
-        values.put(COLUMN_TYPE, venue.getType());
-        values.put(COLUMN_CAPACITY, venue.getCapacity());
-        values.put(COLUMN_PRICE_RANGE, venue.getPriceRange());
-        values.put(COLUMN_RATING, venue.getRating());
-        values.put(COLUMN_REVIEW_COUNT, venue.getReviewCount());
-        values.put(COLUMN_LATITUDE, venue.getLatitude());
-        values.put(COLUMN_LONGITUDE, venue.getLongitude());
+        try {
+            Iterator<Venue> iterator = venues.iterator();
+            while (iterator.hasNext()) {
+                db.beginTransactionNonExclusive();
+                try {
+                    int chunkCount = 0;
+                    while (iterator.hasNext() && chunkCount < UPSERT_CHUNK_SIZE) {
+                        Venue venue = iterator.next();
+                        chunkCount++;
+
+                        if (venue == null || venue.getId() == null || venue.getName() == null) {
+                            result.skipped++;
+                            continue;
+                        }
 
-        // Convert lists to JSON strings
-        if (venue.getImages() != null) {
-            values.put(COLUMN_IMAGES, gson.toJson(venue.getImages()));
-        }
+                        bindVenueUpsertArgs(updateStatement, venue, updatedAt);
+                        if (updateStatement.executeUpdateDelete() > 0) {
+                            result.updated++;
+                            continue;
+                        }
 
-        if (venue.getAmenities() != null) {
-            values.put(COLUMN_AMENITIES, gson.toJson(venue.getAmenities()));
+                        bindVenueUpsertArgs(insertStatement, venue, updatedAt);
+                        if (insertStatement.executeInsert() != -1) {
+                            result.inserted++;
+                        } else {
+                            result.unchanged++;
+                        }
+                    }
+                    db.setTransactionSuccessful();
+                } finally {
+                    db.endTransaction();
+                }
+            }
+        } catch (Exception e) {
+            Log.e("DatabaseHelper", "Error upserting venues: " + e.getMessage());
+        } finally {
+            updateStatement.close();
+            insertStatement.close();
         }
 
-        values.put(COLUMN_DESCRIPTION, venue.getDescription());
-        values.put(COLUMN_CONTACT, venue.getContactPhone());
-        values.put(COLUMN_EMAIL, venue.getContactEmail());
-        values.put(COLUMN_WEBSITE, venue.getWebsite());
-        values.put(COLUMN_UPDATED_AT, dateFormat.format(new Date()));
+        Log.d("DatabaseHelper", "Upserted venues: " + result);
+        return result;
+    }
 
-        // Insert or replace
-        long result = db.insertWithOnConflict(TABLE_VENUES, null, values,
-                SQLiteDatabase.CONFLICT_REPLACE);
-        db.close();
+    // Parameter ?1 is the id; ?2.. follow VENUE_UPSERT_COLUMNS; the last one is updated_at
+    private void bindVenueUpsertArgs(SQLiteStatement statement, Venue venue, long updatedAt) {
+        statement.clearBindings();
+        statement.bindString(1, venue.getId());
+        bindNullableString(statement, 2, venue.getName());
+        bindNullableString(statement, 3, venue.getAddress());
+        bindNullableString(statement, 4, venue.getCity());
+        bindNullableString(statement, 5, venue.getCategory());
+        bindNullableString(statement, 6, venue.getType());
+        statement.bindLong(7, venue.getCapacity());
+        statement.bindDouble(8, venue.getPriceRange());
+        statement.bindDouble(9, venue.getRating());
+        statement.bindLong(10, venue.getReviewCount());
+        statement.bindDouble(11, venue.getLatitude());
+        statement.bindDouble(12, venue.getLongitude());
+        bindNullableString(statement, 13, venue.getImages() != null ? gson.toJson(venue.getImages()) : null);
+        bindNullableString(statement, 14, venue.getAmenities() != null ? gson.toJson(venue.getAmenities()) : null);
+        bindNullableString(statement, 15, venue.getDescription());
+        bindNullableString(statement, 16, venue.getContactPhone());
+        bindNullableString(statement, 17, venue.getContactEmail());
+        bindNullableString(statement, 18, venue.getWebsite());
+        statement.bindLong(19, GeoGrid.cellOf(venue.getLatitude(), venue.getLongitude()));
+        statement.bindLong(20, venue.getAmenityMask());
+        bindNullableString(statement, 21, venue.getFirstImageUrl());
+        bindNullableString(statement, 22, venue.getContentHash());
+        statement.bindLong(VENUE_UPSERT_COLUMNS.length + 2, updatedAt);
+    }
 
-        Log.d("DatabaseHelper", "Inserted venue: " + venue.getName() + " (ID: " + venue.getId() + ")");
-        return result;
+    private static void bindNullableString(SQLiteStatement statement, int index, String value) {
+        if (value == null) {
+            statement.bindNull(index);
+        } else {
+            statement.bindString(index, value);
+        }
+    }
+
+    private static String buildVenueUpsertUpdateSql() {
+        StringBuilder set = new StringBuilder();
+        StringBuilder same = new StringBuilder();
+        for (int i = 0; i < VENUE_UPSERT_COLUMNS.length; i++) {
+            String column = VENUE_UPSERT_COLUMNS[i];
+            int param = i + 2;
+            if (i > 0) {
+                set.append(", ");
+                same.append(" AND ");
+            }
+            set.append(column).append(" = ?").append(param);
+            same.append(column).append(" IS ?").append(param);
+        }
+        return "UPDATE " + TABLE_VENUES + " SET " + set
+                + ", " + COLUMN_UPDATED_AT + " = ?" + (VENUE_UPSERT_COLUMNS.length + 2)
+                + " WHERE " + COLUMN_ID + " = ?1 AND NOT (" + same + ")";
+    }
+
+    private static String buildVenueUpsertInsertSql() {
+        StringBuilder columns = new StringBuilder(COLUMN_ID);
+        StringBuilder values = new StringBuilder("?1");
+        for (int i = 0; i < VENUE_UPSERT_COLUMNS.length; i++) {
+            columns.append(", ").append(VENUE_UPSERT_COLUMNS[i]);
+            values.append(", ?").append(i + 2);
+        }
+        columns.append(", ").append(COLUMN_UPDATED_AT);
+        values.append(", ?").append(VENUE_UPSERT_COLUMNS.length + 2);
+        return "INSERT OR IGNORE INTO " + TABLE_VENUES + " (" + columns + ") VALUES (" + values + ")";
     }
 
     public Venue getVenue(String venueId) {
@@ -336,167 +1031,435 @@ public class DatabaseHelper extends SQLiteOpenHelper {
         }
 
         cursor.close();
-        db.close();
         return venue;
     }
 
-    public List<Venue> getAllVenues() {
+    public List<Venue> getVenuesNearby(double lat, double lon, double radiusKm) {
+        List<VenueDistance> candidates = queryVenuesWithinRadius(lat, lon, radiusKm, null, null);
+        return getVenuesByIds(idsOf(candidates.subList(0, Math.min(50, candidates.size()))));
+    }
+
+    // Full rows for the given ids, in the order given; missing ids are skipped
+    public List<Venue> getVenuesByIds(List<String> venueIds) {
         List<Venue> venues = new ArrayList<>();
-        SQLiteDatabase db = this.getReadableDatabase();
+        if (venueIds == null || venueIds.isEmpty()) return venues;
 
-        String query = "SELECT * FROM " + TABLE_VENUES + " ORDER BY " + COLUMN_NAME;
-        Cursor cursor = db.rawQuery(query, null);
+        StringBuilder placeholders = new StringBuilder();
+        for (int i = 0; i < venueIds.size(); i++) {
+            placeholders.append(i == 0 ? "?" : ", ?");
+        }
 
-        if (cursor.moveToFirst()) {
-            do {
-                venues.add(cursorToVenue(cursor));
-            } while (cursor.moveToNext());
+        Map<String, Venue> byId = new HashMap<>();
+        SQLiteDatabase db = this.getReadableDatabase();
+        Cursor cursor = db.rawQuery("SELECT * FROM " + TABLE_VENUES +
+                " WHERE " + COLUMN_ID + " IN (" + placeholders + ")", venueIds.toArray(new String[0]));
+        try {
+            while (cursor.moveToNext()) {
+                Venue venue = cursorToVenue(cursor);
+                byId.put(venue.getId(), venue);
+            }
+        } finally {
+            cursor.close();
         }
 
-        cursor.close();
-        db.close();
+        for (String venueId : venueIds) {
+            Venue venue = byId.get(venueId);
+            if (venue != null) venues.add(venue);
+        }
         return venues;
     }
 
-    // Fixed getVenuesNearby method - replaced HAVING with WHERE
-    public List<Venue> getVenuesNearby(double lat, double lon, double radiusKm) {
-        List<Venue> venues = new ArrayList<>();
-        SQLiteDatabase db = this.getReadableDatabase();
+    // ==================== PAGINATION ====================
 
-        String query = "SELECT *, "
-                + "(6371 * acos(cos(radians(?)) * cos(radians(" + COLUMN_LATITUDE + ")) * "
-                + "cos(radians(" + COLUMN_LONGITUDE + ") - radians(?)) + "
-                + "sin(radians(?)) * sin(radians(" + COLUMN_LATITUDE + ")))) AS distance "
-                + "FROM " + TABLE_VENUES + " "
-                + "WHERE (" + COLUMN_LATITUDE + " IS NOT NULL AND " + COLUMN_LONGITUDE + " IS NOT NULL) "
-                + "AND (6371 * acos(cos(radians(?)) * cos(radians(" + COLUMN_LATITUDE + ")) * "
-                + "cos(radians(" + COLUMN_LONGITUDE + ") - radians(?)) + "
-                + "sin(radians(?)) * sin(radians(" + COLUMN_LATITUDE + ")))) <= ? "
-                + "ORDER BY distance "
-                + "LIMIT 50";
-
-        String[] args = {
-                String.valueOf(lat),
-                String.valueOf(lon),
-                String.valueOf(lat),
-                String.valueOf(lat),
-                String.valueOf(lon),
-                String.valueOf(lat),
-                String.valueOf(radiusKm)
-        };
+    // Keyset ("seek") paging: each page starts right after the previous page's last row, so a
+    // deep page costs the same as the first. SQLite 3.9 (minSdk 24) has no row values, so
+    // (key, id) > (?, ?) is spelled out.
+    private static final String NAME_KEYSET_CLAUSE = "(" + COLUMN_NAME + " > ? OR ("
+            + COLUMN_NAME + " = ? AND " + COLUMN_ID + " > ?))";
+    private static final String RATING_KEYSET_CLAUSE = "(" + COLUMN_RATING + " < ? OR ("
+            + COLUMN_RATING + " = ? AND " + COLUMN_ID + " > ?))";
 
-        Cursor cursor = db.rawQuery(query, args);
+    private static void addRatingKeysetArgs(List<String> args, double rating, String id) {
+        args.add(String.valueOf(rating));
+        args.add(String.valueOf(rating));
+        args.add(id);
+    }
 
-        if (cursor.moveToFirst()) {
-            do {
-                Venue venue = cursorToVenue(cursor);
-                venues.add(venue);
-            } while (cursor.moveToNext());
+    // All venues by name; pass the last summary of the previous page, or null for the first page
+    public List<VenueSummary> getVenueSummariesPage(VenueSummary after, int pageSize) {
+        StringBuilder query = new StringBuilder("SELECT " + SUMMARY_PROJECTION + " FROM " + TABLE_VENUES);
+        List<String> args = new ArrayList<>();
+
+        if (after != null) {
+            query.append(" WHERE ").append(NAME_KEYSET_CLAUSE);
+            args.add(after.getName());
+            args.add(after.getName());
+            args.add(after.getId());
         }
+        query.append(" ORDER BY ").append(COLUMN_NAME).append(", ").append(COLUMN_ID);
+        query.append(" LIMIT ").append(pageSize);
 
-        cursor.close();
-        db.close();
-        return venues;
+        return queryVenueSummaries(query.toString(), args.toArray(new String[0]));
     }
 
-    public List<Venue> searchVenuesWithFilters(String city, String category, String type,
-                                               int minCapacity, double maxPrice) {
-        List<Venue> venues = new ArrayList<>();
-        SQLiteDatabase db = this.getReadableDatabase();
-
-        StringBuilder queryBuilder = new StringBuilder("SELECT * FROM " + TABLE_VENUES + " WHERE 1=1");
+    // Filtered venues, best rated first; filters use the same keys as getNearestVenues
+    public List<VenueSummary> searchVenueSummariesPage(Map<String, Object> filters, VenueSummary after, int pageSize) {
+        StringBuilder query = new StringBuilder("SELECT " + SUMMARY_PROJECTION + " FROM " + TABLE_VENUES + " WHERE 1=1");
         List<String> args = new ArrayList<>();
 
-        if (city != null && !city.isEmpty()) {
-            queryBuilder.append(" AND ").append(COLUMN_CITY).append(" LIKE ?");
-            args.add("%" + city + "%");
+        String where = buildFilterWhere(filters, args);
+        if (where != null) {
+            query.append(" AND ").append(where);
+        }
+        if (after != null) {
+            query.append(" AND ").append(RATING_KEYSET_CLAUSE);
+            addRatingKeysetArgs(args, after.getRating(), after.getId());
         }
+        query.append(" ORDER BY ").append(COLUMN_RATING).append(" DESC, ").append(COLUMN_ID);
+        query.append(" LIMIT ").append(pageSize);
+
+        return queryVenueSummaries(query.toString(), args.toArray(new String[0]));
+    }
+
+    // ==================== FULL-TEXT SEARCH ====================
+
+    /**
+     * Searches name, address, description, amenities and category. Every word of the query must
+     * match, each as a prefix ("ban" finds "banquet"). Matches are ranked by BM25 computed from
+     * matchinfo(), so only the top `limit` rows are loaded as Venue objects. Filters use the
+     * same keys as getNearestVenues.
+     */
+    public List<Venue> searchVenuesText(String query, Map<String, Object> filters, int limit) {
+        List<Venue> venues = new ArrayList<>();
+        String match = buildFtsMatchExpression(query);
+        if (match == null || limit <= 0) return venues;
 
-        if (category != null && !category.isEmpty()) {
-            queryBuilder.append(" AND ").append(COLUMN_CATEGORY).append(" = ?");
-            args.add(category);
+        List<String> args = new ArrayList<>();
+        args.add(match);
+        List<String> filterArgs = new ArrayList<>();
+        String where = buildFilterWhere(filters, filterArgs);
+
+        String ftsQuery = "SELECT docid, matchinfo(" + TABLE_VENUES_FTS + ", 'pcnalx') FROM " + TABLE_VENUES_FTS
+                + " WHERE " + TABLE_VENUES_FTS + " MATCH ?";
+        if (where != null) {
+            ftsQuery += " AND docid IN (SELECT rowid FROM " + TABLE_VENUES + " WHERE " + where + ")";
+            args.addAll(filterArgs);
         }
 
-        if (type != null && !type.isEmpty()) {
-            queryBuilder.append(" AND ").append(COLUMN_TYPE).append(" = ?");
-            args.add(type);
+        SQLiteDatabase db = this.getReadableDatabase();
+        // Min-heap on score keeps only the best `limit` docids
+        PriorityQueue<double[]> best = new PriorityQueue<>(limit, (a, b) -> Double.compare(a[1], b[1]));
+        Cursor cursor = db.rawQuery(ftsQuery, args.toArray(new String[0]));
+        try {
+            while (cursor.moveToNext()) {
+                double score = bm25(cursor.getBlob(1));
+                if (best.size() < limit) {
+                    best.add(new double[]{cursor.getLong(0), score});
+                } else if (score > best.peek()[1]) {
+                    best.poll();
+                    best.add(new double[]{cursor.getLong(0), score});
+                }
+            }
+        } finally {
+            cursor.close();
         }
+        if (best.isEmpty()) return venues;
 
-        queryBuilder.append(" AND ").append(COLUMN_CAPACITY).append(" >= ?");
-        args.add(String.valueOf(minCapacity));
+        List<double[]> ranked = new ArrayList<>(best);
+        ranked.sort((a, b) -> Double.compare(b[1], a[1]));
 
-        queryBuilder.append(" AND ").append(COLUMN_PRICE_RANGE).append(" <= ?");
-        args.add(String.valueOf(maxPrice));
+        StringBuilder ids = new StringBuilder();
+        for (double[] entry : ranked) {
+            if (ids.length() > 0) ids.append(", ");
+            ids.append((long) entry[0]);
+        }
+        Map<Long, Venue> byRowId = new HashMap<>();
+        cursor = db.rawQuery("SELECT rowid, * FROM " + TABLE_VENUES + " WHERE rowid IN (" + ids + ")", null);
+        try {
+            while (cursor.moveToNext()) {
+                byRowId.put(cursor.getLong(0), cursorToVenue(cursor));
+            }
+        } finally {
+            cursor.close();
+        }
 
-        queryBuilder.append(" ORDER BY ").append(COLUMN_RATING).append(" DESC");
-        queryBuilder.append(" LIMIT 100");
+        for (double[] entry : ranked) {
+            Venue venue = byRowId.get((long) entry[0]);
+            if (venue != null) venues.add(venue);
+        }
+        return venues;
+    }
 
-        Cursor cursor = db.rawQuery(queryBuilder.toString(), args.toArray(new String[0]));
+    // Turns free text into an FTS4 prefix query: "grand ban" -> "grand* ban*"
+    static String buildFtsMatchExpression(String query) {
+        if (query == null) return null;
 
-        if (cursor.moveToFirst()) {
-            do {
-                venues.add(cursorToVenue(cursor));
-            } while (cursor.moveToNext());
+        StringBuilder match = new StringBuilder();
+        for (String token : query.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (token.isEmpty()) continue;
+            if (match.length() > 0) match.append(' ');
+            match.append(token).append('*');
         }
+        return match.length() > 0 ? match.toString() : null;
+    }
 
-        cursor.close();
-        db.close();
-        return venues;
+    /**
+     * Okapi BM25 over a matchinfo('pcnalx') blob: phrase count p, column count c, row count n,
+     * average column lengths a[c], this row's column lengths l[c], then for each phrase and
+     * column the triple (hits in this row, hits in all rows, rows with a hit).
+     */
+    static double bm25(byte[] matchInfo) {
+        IntBuffer info = ByteBuffer.wrap(matchInfo).order(ByteOrder.nativeOrder()).asIntBuffer();
+        int phraseCount = info.get(0);
+        int columnCount = info.get(1);
+        int rowCount = info.get(2);
+        int avgOffset = 3;
+        int lengthOffset = avgOffset + columnCount;
+        int hitsOffset = lengthOffset + columnCount;
+
+        double score = 0;
+        for (int phrase = 0; phrase < phraseCount; phrase++) {
+            for (int column = 0; column < columnCount && column < FTS_COLUMN_WEIGHTS.length; column++) {
+                int base = hitsOffset + 3 * (phrase * columnCount + column);
+                int hits = info.get(base);
+                if (hits == 0) continue;
+
+                int rowsWithHit = info.get(base + 2);
+                double idf = Math.log((rowCount - rowsWithHit + 0.5) / (rowsWithHit + 0.5));
+                // Terms in over half the rows would get a negative idf; keep them slightly positive
+                idf = Math.max(idf, 0.01);
+
+                double avgLength = Math.max(1, info.get(avgOffset + column));
+                double length = info.get(lengthOffset + column);
+                double tf = hits * (BM25_K1 + 1)
+                        / (hits + BM25_K1 * (1 - BM25_B + BM25_B * length / avgLength));
+                score += FTS_COLUMN_WEIGHTS[column] * idf * tf;
+            }
+        }
+        return score;
     }
 
     public int deleteVenue(String venueId) {
         SQLiteDatabase db = this.getWritableDatabase();
         int result = db.delete(TABLE_VENUES, COLUMN_ID + " = ?", new String[]{venueId});
-        db.close();
         return result;
     }
 
-    // ==================== VENUE SCORING METHODS ====================
+    // ==================== SPATIAL QUERY METHODS ====================
 
-    public List<VenueScore> getVenuesWithScore(double lat, double lon,
-                                               int guestCount, double budget,
-                                               String eventType) {
-        List<VenueScore> scoredVenues = new ArrayList<>();
-        SQLiteDatabase db = this.getReadableDatabase();
+    // Index probe over the circle's bounding box, then exact haversine filtering; nearest first
+    private List<VenueDistance> queryVenuesWithinRadius(double lat, double lon, double radiusKm,
+                                                        String where, List<String> whereArgs) {
+        double[] box = GeoGrid.boundingBox(lat, lon, radiusKm);
+        List<long[]> ranges = GeoGrid.cellRanges(box);
 
-        String query = "SELECT *, "
-                + "(6371 * acos(cos(radians(?)) * cos(radians(" + COLUMN_LATITUDE + ")) * "
-                + "cos(radians(" + COLUMN_LONGITUDE + ") - radians(?)) + "
-                + "sin(radians(?)) * sin(radians(" + COLUMN_LATITUDE + ")))) AS distance "
-                + "FROM " + TABLE_VENUES + " "
-                + "WHERE " + COLUMN_CAPACITY + " >= ? "
-                + "AND " + COLUMN_PRICE_RANGE + " <= ? "
-                + "ORDER BY distance "
-                + "LIMIT 100";
+        List<VenueDistance> results = queryVenuesInCellRanges(ranges, lat, lon, radiusKm, where, whereArgs);
+        results.sort((a, b) -> Double.compare(a.distanceKm, b.distanceKm));
+        return results;
+    }
 
-        String[] selectionArgs = {
-                String.valueOf(lat),
-                String.valueOf(lon),
-                String.valueOf(lat),
-                String.valueOf(guestCount),
-                String.valueOf(budget * 1.2)
-        };
+    /**
+     * Returns the k venues closest to (lat, lon) that match the filters, nearest first. The
+     * filters use the same keys as VenueService.searchVenues ("city", "type", "category",
+     * "categories", "minCapacity", "maxPrice") plus "amenities", a list of AmenityCatalog
+     * codes that must all be present; null means no filtering.
+     */
+    public List<Venue> getNearestVenues(double lat, double lon, int k, Map<String, Object> filters) {
+        return getVenuesByIds(idsOf(queryNearestVenues(lat, lon, k, filters)));
+    }
 
-        Cursor cursor = db.rawQuery(query, selectionArgs);
+    // Same search as getNearestVenues, without loading full rows
+    public List<VenueSummary> getNearestVenueSummaries(double lat, double lon, int k, Map<String, Object> filters) {
+        List<VenueSummary> summaries = new ArrayList<>();
+        for (VenueDistance candidate : queryNearestVenues(lat, lon, k, filters)) {
+            summaries.add(candidate.summary);
+        }
+        return summaries;
+    }
 
-        if (cursor.moveToFirst()) {
-            do {
-                Venue venue = cursorToVenue(cursor);
+    private static List<String> idsOf(List<VenueDistance> candidates) {
+        List<String> ids = new ArrayList<>(candidates.size());
+        for (VenueDistance candidate : candidates) {
+            ids.add(candidate.summary.getId());
+        }
+        return ids;
+    }
 
-                // Get distance safely with null check
-                int distanceIndex = cursor.getColumnIndex("distance");
-                double distance = 0;
-                if (distanceIndex >= 0) {
-                    distance = cursor.getDouble(distanceIndex);
+    /**
+     * Searches square rings of doubling radius around the point, keeping the best k in a
+     * bounded heap. Once the explored box covers the circle through the current k-th result
+     * no unexplored venue can be closer, so the cost follows k rather than area density.
+     */
+    private List<VenueDistance> queryNearestVenues(double lat, double lon, int k, Map<String, Object> filters) {
+        List<VenueDistance> results = new ArrayList<>();
+        if (k <= 0) return results;
+
+        List<String> whereArgs = new ArrayList<>();
+        String where = buildFilterWhere(filters, whereArgs);
+
+        PriorityQueue<VenueDistance> nearest = new PriorityQueue<>(k,
+                (a, b) -> Double.compare(b.distanceKm, a.distanceKm));
+        double[] explored = null;
+        double radiusKm = NEAREST_START_RADIUS_KM;
+
+        while (true) {
+            double[] box = GeoGrid.boundingBox(lat, lon, radiusKm);
+            // Rows farther than the current k-th result are discarded before being materialized
+            double maxDistanceKm = nearest.size() == k ? nearest.peek().distanceKm : Double.MAX_VALUE;
+
+            for (VenueDistance candidate : queryVenuesInCellRanges(GeoGrid.cellRanges(box, explored),
+                    lat, lon, maxDistanceKm, where, whereArgs)) {
+                if (nearest.size() < k) {
+                    nearest.add(candidate);
+                } else if (candidate.distanceKm < nearest.peek().distanceKm) {
+                    nearest.poll();
+                    nearest.add(candidate);
                 }
+            }
+            explored = box;
 
-                double score = calculateLocalScore(venue, guestCount, budget, distance, eventType);
-                scoredVenues.add(new VenueScore(venue, score));
-            } while (cursor.moveToNext());
+            // Every venue within radiusKm lies inside the explored box
+            boolean complete = nearest.size() == k && nearest.peek().distanceKm <= radiusKm;
+            if (complete || radiusKm >= NEAREST_MAX_RADIUS_KM) break;
+            radiusKm = Math.min(radiusKm * 2, NEAREST_MAX_RADIUS_KM);
         }
 
-        cursor.close();
-        db.close();
+        results.addAll(nearest);
+        results.sort((a, b) -> Double.compare(a.distanceKm, b.distanceKm));
+        return results;
+    }
+
+    // Translates an app filter map into AND'ed conditions; returns null when there are none
+    private String buildFilterWhere(Map<String, Object> filters, List<String> args) {
+        if (filters == null || filters.isEmpty()) return null;
+
+        List<String> clauses = new ArrayList<>();
+        if (filters.get("city") != null) {
+            // Case-insensitive substring match, as city filtering behaved before the filters were
+            // unified; stored names vary ("Navi Mumbai", "mumbai") so equality would miss rows
+            clauses.add(COLUMN_CITY + " LIKE ?");
+            args.add("%" + filters.get("city") + "%");
+        }
+        if (filters.get("type") != null) {
+            clauses.add(COLUMN_TYPE + " = ?");
+            args.add(filters.get("type").toString());
+        }
+        if (filters.get("category") != null) {
+            clauses.add(COLUMN_CATEGORY + " = ?");
+            args.add(filters.get("category").toString());
+        }
+        if (filters.get("categories") instanceof Collection && !((Collection<?>) filters.get("categories")).isEmpty()) {
+            StringBuilder in = new StringBuilder(COLUMN_CATEGORY + " IN (");
+            boolean first = true;
+            for (Object category : (Collection<?>) filters.get("categories")) {
+                in.append(first ? "?" : ", ?");
+                args.add(String.valueOf(category));
+                first = false;
+            }
+            clauses.add(in.append(")").toString());
+        }
+        if (filters.get("minCapacity") != null) {
+            clauses.add(COLUMN_CAPACITY + " >= ?");
+            args.add(filters.get("minCapacity").toString());
+        }
+        if (filters.get("maxPrice") != null) {
+            clauses.add(COLUMN_PRICE_RANGE + " <= ?");
+            args.add(filters.get("maxPrice").toString());
+        }
+        if (filters.get("amenities") instanceof Collection) {
+            long required = 0;
+            boolean unknown = false;
+            for (Object code : (Collection<?>) filters.get("amenities")) {
+                int bit = AmenityCatalog.bitOf(code != null ? code.toString() : null);
+                if (bit < 0) {
+                    unknown = true;
+                } else {
+                    required |= 1L << bit;
+                }
+            }
+            if (unknown) {
+                // No venue's mask can carry a code outside the catalogue
+                clauses.add("1 = 0");
+            } else if (required != 0) {
+                // Mask is a computed integer, safe to inline
+                clauses.add("(" + COLUMN_AMENITY_MASK + " & " + required + ") = " + required);
+            }
+        }
+
+        if (clauses.isEmpty()) return null;
+        StringBuilder where = new StringBuilder();
+        for (String clause : clauses) {
+            if (where.length() > 0) where.append(" AND ");
+            where.append(clause);
+        }
+        return where.toString();
+    }
+
+    /**
+     * Reads venues whose geo_cell falls in any of the given id ranges and that lie within
+     * maxDistanceKm of (lat, lon). Range bounds are inlined as integer literals so SQLite can
+     * use idx_venues_geo_cell; long range lists are split across several probes.
+     */
+    private List<VenueDistance> queryVenuesInCellRanges(List<long[]> ranges, double lat, double lon,
+                                                        double maxDistanceKm, String where,
+                                                        List<String> whereArgs) {
+        List<VenueDistance> results = new ArrayList<>();
+        SQLiteDatabase db = this.getReadableDatabase();
+        if (ranges.isEmpty()) return results;
+        String[] args = whereArgs != null && !whereArgs.isEmpty() ? whereArgs.toArray(new String[0]) : null;
+
+        for (int start = 0; start < ranges.size(); start += MAX_CELL_RANGES_PER_QUERY) {
+            int end = Math.min(ranges.size(), start + MAX_CELL_RANGES_PER_QUERY);
+
+            StringBuilder query = new StringBuilder("SELECT " + SUMMARY_PROJECTION + " FROM " + TABLE_VENUES + " WHERE (");
+            for (int i = start; i < end; i++) {
+                long[] range = ranges.get(i);
+                if (i > start) query.append(" OR ");
+                query.append(COLUMN_GEO_CELL).append(" BETWEEN ").append(range[0]).append(" AND ").append(range[1]);
+            }
+            query.append(")");
+            if (where != null) {
+                query.append(" AND ").append(where);
+            }
+
+            Cursor cursor = db.rawQuery(query.toString(), args);
+            try {
+                SummaryColumns columns = new SummaryColumns(cursor);
+                while (cursor.moveToNext()) {
+                    double distance = GeoGrid.distanceKm(lat, lon,
+                            cursor.getDouble(columns.latitude), cursor.getDouble(columns.longitude));
+                    if (distance <= maxDistanceKm) {
+                        results.add(new VenueDistance(columns.read(cursor), distance));
+                    }
+                }
+            } finally {
+                cursor.close();
+            }
+        }
+        return results;
+    }
+
+    // ==================== VENUE SCORING METHODS ====================
+
+    public List<VenueScore> getVenuesWithScore(double lat, double lon,
+                                               int guestCount, double budget,
+                                               String eventType) {
+        List<VenueScore> scoredVenues = new ArrayList<>();
+
+        Map<String, Object> filters = new HashMap<>();
+        filters.put("minCapacity", guestCount);
+        filters.put("maxPrice", budget * 1.2);
+
+        List<VenueDistance> candidates = queryNearestVenues(lat, lon, SCORE_CANDIDATE_COUNT, filters);
+        Map<String, Double> distances = new HashMap<>();
+        for (VenueDistance candidate : candidates) {
+            distances.put(candidate.summary.getId(), candidate.distanceKm);
+        }
+
+        for (Venue venue : getVenuesByIds(idsOf(candidates))) {
+            double score = calculateLocalScore(venue, guestCount, budget, distances.get(venue.getId()), eventType);
+            scoredVenues.add(new VenueScore(venue, score));
+        }
 
         scoredVenues.sort((a, b) -> Double.compare(b.score, a.score));
         return scoredVenues;
@@ -582,26 +1545,122 @@ public class DatabaseHelper extends SQLiteOpenHelper {
         return venue;
     }
 
-    // ==================== BOOKING METHODS ====================
-
-    public long addBooking(String venueId, String userId, String eventName, String eventDate,
-                           String eventTime, int guestCount, double totalAmount) {
-        SQLiteDatabase db = this.getWritableDatabase();
-        ContentValues values = new ContentValues();
+    // ==================== CURSOR TO SUMMARY CONVERSION ====================
 
-        values.put(COLUMN_VENUE_ID, venueId);
-        values.put(COLUMN_USER_ID, userId);
+    private List<VenueSummary> queryVenueSummaries(String query, String[] args) {
+        List<VenueSummary> summaries = new ArrayList<>();
+        SQLiteDatabase db = this.getReadableDatabase();
+        Cursor cursor = db.rawQuery(query, args);
+        try {
+            SummaryColumns columns = new SummaryColumns(cursor);
+            while (cursor.moveToNext()) {
+                summaries.add(columns.read(cursor));
+            }
+        } finally {
+            cursor.close();
+        }
+        return summaries;
+    }
+
+    // Column indexes of a SUMMARY_PROJECTION cursor, looked up once instead of per row
+    private static class SummaryColumns {
+        final int id, name, address, city, category, type, capacity, priceRange,
+                rating, reviewCount, latitude, longitude, coverImage, amenityMask;
+
+        SummaryColumns(Cursor cursor) {
+            id = cursor.getColumnIndexOrThrow(COLUMN_ID);
+            name = cursor.getColumnIndexOrThrow(COLUMN_NAME);
+            address = cursor.getColumnIndexOrThrow(COLUMN_ADDRESS);
+            city = cursor.getColumnIndexOrThrow(COLUMN_CITY);
+            category = cursor.getColumnIndexOrThrow(COLUMN_CATEGORY);
+            type = cursor.getColumnIndexOrThrow(COLUMN_TYPE);
+            capacity = cursor.getColumnIndexOrThrow(COLUMN_CAPACITY);
+            priceRange = cursor.getColumnIndexOrThrow(COLUMN_PRICE_RANGE);
+            rating = cursor.getColumnIndexOrThrow(COLUMN_RATING);
+            reviewCount = cursor.getColumnIndexOrThrow(COLUMN_REVIEW_COUNT);
+            latitude = cursor.getColumnIndexOrThrow(COLUMN_LATITUDE);
+            longitude = cursor.getColumnIndexOrThrow(COLUMN_LONGITUDE);
+            coverImage = cursor.getColumnIndexOrThrow(COLUMN_COVER_IMAGE);
+            amenityMask = cursor.getColumnIndexOrThrow(COLUMN_AMENITY_MASK);
+        }
+
+        VenueSummary read(Cursor cursor) {
+            return new VenueSummary(cursor.getString(id), cursor.getString(name), cursor.getString(address),
+                    cursor.getString(city), cursor.getString(category), cursor.getString(type),
+                    cursor.getInt(capacity), cursor.getDouble(priceRange), cursor.getDouble(rating),
+                    cursor.getInt(reviewCount), cursor.getDouble(latitude), cursor.getDouble(longitude),
+                    cursor.getString(coverImage), cursor.getLong(amenityMask));
+        }
+    }
+
+    // ==================== BOOKING METHODS ====================
+
+    // eventDate is epoch millis; it is stored as that day's local midnight
+    public long addBooking(String venueId, String userId, String eventName, long eventDate,
+                           String eventTime, int guestCount, double totalAmount) {
+        SQLiteDatabase db = this.getWritableDatabase();
+        ContentValues values = new ContentValues();
+
+        values.put(COLUMN_VENUE_ID, venueId);
+        values.put(COLUMN_USER_ID, userId);
         values.put("event_name", eventName);
-        values.put("event_date", eventDate);
+        values.put("event_date", startOfDay(eventDate));
         values.put("event_time", eventTime);
         values.put("guest_count", guestCount);
         values.put("total_amount", totalAmount);
+        values.put("created_at", System.currentTimeMillis());
 
-        long result = db.insert(TABLE_BOOKINGS, null, values);
-        db.close();
+        long result;
+        db.beginTransactionNonExclusive();
+        try {
+            result = db.insert(TABLE_BOOKINGS, null, values);
+            if (result != -1) {
+                addTrendingActivity(db, venueId, TRENDING_WEIGHT_BOOKING, 1);
+                addPreferenceSignal(db, userId, venueId, PREFERENCE_WEIGHT_BOOKING, true, guestCount);
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
         return result;
     }
 
+    // Local midnight of the day containing timeMs
+    static long startOfDay(long timeMs) {
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTimeInMillis(timeMs);
+        calendar.set(Calendar.HOUR_OF_DAY, 0);
+        calendar.set(Calendar.MINUTE, 0);
+        calendar.set(Calendar.SECOND, 0);
+        calendar.set(Calendar.MILLISECOND, 0);
+        return calendar.getTimeInMillis();
+    }
+
+    /**
+     * Distinct venue location and event date of local bookings with fromMs <= event date < toMs
+     * that have not been cancelled or rejected.
+     */
+    public List<BookingLocation> getUpcomingBookingLocations(long fromMs, long toMs) {
+        List<BookingLocation> locations = new ArrayList<>();
+        SQLiteDatabase db = this.getReadableDatabase();
+
+        String query = "SELECT DISTINCT v." + COLUMN_LATITUDE + ", v." + COLUMN_LONGITUDE + ", b.event_date" +
+                " FROM " + TABLE_BOOKINGS + " b" +
+                " INNER JOIN " + TABLE_VENUES + " v ON v." + COLUMN_ID + " = b." + COLUMN_VENUE_ID +
+                " WHERE b.event_date >= ? AND b.event_date < ?" +
+                " AND LOWER(IFNULL(b.booking_status, '')) NOT IN ('cancelled', 'rejected')";
+
+        Cursor cursor = db.rawQuery(query, new String[]{String.valueOf(fromMs), String.valueOf(toMs)});
+        try {
+            while (cursor.moveToNext()) {
+                locations.add(new BookingLocation(cursor.getDouble(0), cursor.getDouble(1), cursor.getLong(2)));
+            }
+        } finally {
+            cursor.close();
+        }
+        return locations;
+    }
+
     public List<Booking> getUserBookings(String userId) {
         List<Booking> bookings = new ArrayList<>();
         SQLiteDatabase db = this.getReadableDatabase();
@@ -613,45 +1672,44 @@ public class DatabaseHelper extends SQLiteOpenHelper {
                 "ORDER BY b.created_at DESC";
 
         Cursor cursor = db.rawQuery(query, new String[]{userId});
-
-        if (cursor.moveToFirst()) {
-            do {
+        try {
+            int bookingIdIndex = cursor.getColumnIndexOrThrow("booking_id");
+            int venueIdIndex = cursor.getColumnIndexOrThrow(COLUMN_VENUE_ID);
+            int userIdIndex = cursor.getColumnIndexOrThrow(COLUMN_USER_ID);
+            int eventNameIndex = cursor.getColumnIndexOrThrow("event_name");
+            int eventDateIndex = cursor.getColumnIndexOrThrow("event_date");
+            int eventTimeIndex = cursor.getColumnIndexOrThrow("event_time");
+            int guestCountIndex = cursor.getColumnIndexOrThrow("guest_count");
+            int totalAmountIndex = cursor.getColumnIndexOrThrow("total_amount");
+            int bookingStatusIndex = cursor.getColumnIndexOrThrow("booking_status");
+            int paymentStatusIndex = cursor.getColumnIndexOrThrow("payment_status");
+            int createdAtIndex = cursor.getColumnIndexOrThrow("created_at");
+            int venueNameIndex = cursor.getColumnIndexOrThrow("venue_name");
+            int venueAddressIndex = cursor.getColumnIndexOrThrow(COLUMN_ADDRESS);
+
+            while (cursor.moveToNext()) {
                 Booking booking = new Booking();
-                booking.setBookingId(cursor.getInt(cursor.getColumnIndexOrThrow("booking_id")));
-                booking.setVenueId(cursor.getString(cursor.getColumnIndexOrThrow(COLUMN_VENUE_ID)));
-                booking.setUserId(cursor.getString(cursor.getColumnIndexOrThrow(COLUMN_USER_ID)));
-                booking.setEventName(cursor.getString(cursor.getColumnIndexOrThrow("event_name")));
-
-                String eventDateStr = cursor.getString(cursor.getColumnIndexOrThrow("event_date"));
-                if (eventDateStr != null) {
-                    try {
-                        Date eventDate = eventDateFormat.parse(eventDateStr);
-                        booking.setEventDate(eventDate);
-                    } catch (ParseException e) {
-                        Log.e("DatabaseHelper", "Error parsing event date: " + e.getMessage());
-                    }
-                }
-
-                booking.setEventTime(cursor.getString(cursor.getColumnIndexOrThrow("event_time")));
-                booking.setGuestCount(cursor.getInt(cursor.getColumnIndexOrThrow("guest_count")));
-                booking.setTotalAmount(cursor.getDouble(cursor.getColumnIndexOrThrow("total_amount")));
-                booking.setBookingStatus(cursor.getString(cursor.getColumnIndexOrThrow("booking_status")));
-                booking.setPaymentStatus(cursor.getString(cursor.getColumnIndexOrThrow("payment_status")));
-
-                String createdAtStr = cursor.getString(cursor.getColumnIndexOrThrow("created_at"));
-                if (createdAtStr != null) {
-                    booking.setCreatedAt(createdAtStr);
+                booking.setBookingId(cursor.getInt(bookingIdIndex));
+                booking.setVenueId(cursor.getString(venueIdIndex));
+                booking.setUserId(cursor.getString(userIdIndex));
+                booking.setEventName(cursor.getString(eventNameIndex));
+                if (!cursor.isNull(eventDateIndex)) {
+                    booking.setEventDate(new Date(cursor.getLong(eventDateIndex)));
                 }
-
-                booking.setVenueName(cursor.getString(cursor.getColumnIndexOrThrow("venue_name")));
-                booking.setVenueAddress(cursor.getString(cursor.getColumnIndexOrThrow(COLUMN_ADDRESS)));
+                booking.setEventTime(cursor.getString(eventTimeIndex));
+                booking.setGuestCount(cursor.getInt(guestCountIndex));
+                booking.setTotalAmount(cursor.getDouble(totalAmountIndex));
+                booking.setBookingStatus(cursor.getString(bookingStatusIndex));
+                booking.setPaymentStatus(cursor.getString(paymentStatusIndex));
+                booking.setCreatedAt(cursor.getLong(createdAtIndex));
+                booking.setVenueName(cursor.getString(venueNameIndex));
+                booking.setVenueAddress(cursor.getString(venueAddressIndex));
 
                 bookings.add(booking);
-            } while (cursor.moveToNext());
+            }
+        } finally {
+            cursor.close();
         }
-
-        cursor.close();
-        db.close();
         return bookings;
     }
 
@@ -663,19 +1721,39 @@ public class DatabaseHelper extends SQLiteOpenHelper {
 
         values.put(COLUMN_VENUE_ID, venueId);
         values.put(COLUMN_USER_ID, userId);
+        values.put("added_at", System.currentTimeMillis());
 
-        long result = db.insertWithOnConflict(TABLE_FAVORITES, null, values,
-                SQLiteDatabase.CONFLICT_IGNORE);
-        db.close();
+        long result;
+        db.beginTransactionNonExclusive();
+        try {
+            result = db.insertWithOnConflict(TABLE_FAVORITES, null, values,
+                    SQLiteDatabase.CONFLICT_IGNORE);
+            if (result != -1) {
+                addTrendingActivity(db, venueId, TRENDING_WEIGHT_FAVORITE, 1);
+                addPreferenceSignal(db, userId, venueId, PREFERENCE_WEIGHT_FAVORITE, false, 0);
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
         return result;
     }
 
     public boolean removeFavorite(String venueId, String userId) {
         SQLiteDatabase db = this.getWritableDatabase();
-        int result = db.delete(TABLE_FAVORITES,
-                COLUMN_VENUE_ID + " = ? AND " + COLUMN_USER_ID + " = ?",
-                new String[]{venueId, userId});
-        db.close();
+        int result;
+        db.beginTransactionNonExclusive();
+        try {
+            result = db.delete(TABLE_FAVORITES,
+                    COLUMN_VENUE_ID + " = ? AND " + COLUMN_USER_ID + " = ?",
+                    new String[]{venueId, userId});
+            if (result > 0) {
+                removeFavoriteSignal(db, userId, venueId);
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
         return result > 0;
     }
 
@@ -697,7 +1775,6 @@ public class DatabaseHelper extends SQLiteOpenHelper {
         }
 
         cursor.close();
-        db.close();
         return favorites;
     }
 
@@ -710,53 +1787,74 @@ public class DatabaseHelper extends SQLiteOpenHelper {
         boolean isFavorite = cursor.moveToFirst();
 
         cursor.close();
-        db.close();
         return isFavorite;
     }
 
     // ==================== AI RECOMMENDATION METHODS ====================
 
-    public long saveAIRecommendation(String eventId, List<Venue> recommendations) {
+    /**
+     * Replaces the stored recommendations for an event with the given venues, in order.
+     * scores maps venue id to its recommendation score and may be null.
+     */
+    public void saveAIRecommendation(String eventId, List<Venue> recommendations, Map<String, Double> scores) {
         SQLiteDatabase db = this.getWritableDatabase();
-        ContentValues values = new ContentValues();
-
-        values.put(COLUMN_EVENT_ID, eventId);
-        values.put(COLUMN_RECOMMENDATION_DATA, gson.toJson(recommendations));
+        long now = System.currentTimeMillis();
 
-        long result = db.insert(TABLE_AI_RECOMMENDATIONS, null, values);
-        db.close();
-        return result;
+        db.beginTransactionNonExclusive();
+        try {
+            db.delete(TABLE_AI_RECOMMENDATIONS, COLUMN_EVENT_ID + " = ?", new String[]{eventId});
+            db.delete(TABLE_AI_RECOMMENDATIONS, COLUMN_CREATED_AT + " < ?",
+                    new String[]{String.valueOf(now - RECOMMENDATION_TTL_MS)});
+
+            SQLiteStatement insert = db.compileStatement("INSERT INTO " + TABLE_AI_RECOMMENDATIONS + "(" +
+                    COLUMN_EVENT_ID + ", " + COLUMN_RANK + ", " + COLUMN_VENUE_ID + ", " + COLUMN_SCORE + ", " +
+                    COLUMN_CREATED_AT + ") VALUES (?, ?, ?, ?, ?)");
+            try {
+                int rank = 0;
+                for (Venue venue : recommendations) {
+                    if (venue.getId() == null) continue;
+
+                    insert.clearBindings();
+                    insert.bindString(1, eventId);
+                    insert.bindLong(2, rank++);
+                    insert.bindString(3, venue.getId());
+                    Double score = scores != null ? scores.get(venue.getId()) : null;
+                    if (score != null) {
+                        insert.bindDouble(4, score);
+                    }
+                    insert.bindLong(5, now);
+                    insert.executeInsert();
+                }
+            } finally {
+                insert.close();
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
     }
 
-    public List<Venue> getAIRecommendations(String eventId) {
-        List<Venue> recommendations = new ArrayList<>();
-        SQLiteDatabase db = this.getReadableDatabase();
-
-        String query = "SELECT " + COLUMN_RECOMMENDATION_DATA + " FROM " +
-                TABLE_AI_RECOMMENDATIONS + " WHERE " + COLUMN_EVENT_ID + " = ? " +
-                "ORDER BY " + COLUMN_CREATED_AT + " DESC LIMIT 1";
+    // Unexpired recommendations for an event in rank order; venues since removed are skipped
+    public List<VenueSummary> getAIRecommendations(String eventId) {
+        String query = "SELECT " + prefixed("v", SUMMARY_PROJECTION) + " FROM " + TABLE_AI_RECOMMENDATIONS + " r" +
+                " INNER JOIN " + TABLE_VENUES + " v ON v." + COLUMN_ID + " = r." + COLUMN_VENUE_ID +
+                " WHERE r." + COLUMN_EVENT_ID + " = ? AND r." + COLUMN_CREATED_AT + " >= ?" +
+                " ORDER BY r." + COLUMN_RANK;
 
-        Cursor cursor = db.rawQuery(query, new String[]{eventId});
-
-        if (cursor.moveToFirst()) {
-            String jsonData = cursor.getString(cursor.getColumnIndexOrThrow(COLUMN_RECOMMENDATION_DATA));
-            Type listType = new TypeToken<List<Venue>>(){}.getType();
-            recommendations = gson.fromJson(jsonData, listType);
-        }
-
-        cursor.close();
-        db.close();
-        return recommendations;
+        return queryVenueSummaries(query, new String[]{
+                eventId,
+                String.valueOf(System.currentTimeMillis() - RECOMMENDATION_TTL_MS)
+        });
     }
 
     // ==================== WEATHER CACHE METHODS ====================
 
-    public void cacheWeather(double lat, double lng, String date, String weatherData, long expiresInHours) {
+    // Returns the entry's expiry time in millis
+    public long cacheWeather(double lat, double lng, String date, String weatherData, long expiresInHours) {
         SQLiteDatabase db = this.getWritableDatabase();
         ContentValues values = new ContentValues();
 
-        values.put(COLUMN_WEATHER_LAT, lat);
-        values.put(COLUMN_WEATHER_LNG, lng);
+        values.put(COLUMN_WEATHER_CELL, GeoGrid.weatherCellOf(lat, lng));
         values.put(COLUMN_WEATHER_DATE, date);
         values.put(COLUMN_WEATHER_DATA, weatherData);
 
@@ -765,38 +1863,224 @@ public class DatabaseHelper extends SQLiteOpenHelper {
 
         db.insertWithOnConflict(TABLE_WEATHER_CACHE, null, values,
                 SQLiteDatabase.CONFLICT_REPLACE);
-        db.close();
+        return expiresAt;
     }
 
-    public String getCachedWeather(double lat, double lng, String date) {
+    // Any coordinate inside the same GeoGrid weather cell hits the same entry
+    public CachedWeather getCachedWeather(double lat, double lng, String date) {
         SQLiteDatabase db = this.getReadableDatabase();
-        String weatherData = null;
+        CachedWeather weatherData = null;
 
-        String query = "SELECT " + COLUMN_WEATHER_DATA + " FROM " + TABLE_WEATHER_CACHE +
-                " WHERE " + COLUMN_WEATHER_LAT + " = ? AND " + COLUMN_WEATHER_LNG + " = ? " +
-                " AND " + COLUMN_WEATHER_DATE + " = ? AND " + COLUMN_EXPIRES_AT + " > ?";
+        String query = "SELECT " + COLUMN_WEATHER_DATA + ", " + COLUMN_EXPIRES_AT + " FROM " + TABLE_WEATHER_CACHE +
+                " WHERE " + COLUMN_WEATHER_CELL + " = ? AND " + COLUMN_WEATHER_DATE + " = ?" +
+                " AND " + COLUMN_EXPIRES_AT + " > ?";
 
         String[] selectionArgs = {
-                String.valueOf(lat),
-                String.valueOf(lng),
+                String.valueOf(GeoGrid.weatherCellOf(lat, lng)),
                 date,
                 String.valueOf(System.currentTimeMillis())
         };
 
         Cursor cursor = db.rawQuery(query, selectionArgs);
-
-        if (cursor.moveToFirst()) {
-            int columnIndex = cursor.getColumnIndex(COLUMN_WEATHER_DATA);
-            if (columnIndex >= 0) {
-                weatherData = cursor.getString(columnIndex);
+        try {
+            if (cursor.moveToFirst()) {
+                weatherData = new CachedWeather(cursor.getString(0), cursor.getLong(1));
             }
+        } finally {
+            cursor.close();
         }
 
-        cursor.close();
-        db.close();
+        if (weatherData != null) {
+            weatherCacheHits.incrementAndGet();
+        } else {
+            weatherCacheMisses.incrementAndGet();
+        }
+        Log.d("DatabaseHelper", "Weather cache " + (weatherData != null ? "hit" : "miss") +
+                ", hit ratio " + String.format(Locale.US, "%.2f", getWeatherCacheHitRatio()));
         return weatherData;
     }
 
+    // Replaces the stored forecast series for the weather cell containing (lat, lng)
+    public void saveForecastSlots(double lat, double lng, List<ForecastSlot> slots, long expiresInHours) {
+        SQLiteDatabase db = this.getWritableDatabase();
+        long cell = GeoGrid.weatherCellOf(lat, lng);
+        long expiresAt = System.currentTimeMillis() + (expiresInHours * 3600000);
+
+        db.beginTransactionNonExclusive();
+        try {
+            db.delete(TABLE_WEATHER_SLOTS, COLUMN_WEATHER_CELL + " = ?", new String[]{String.valueOf(cell)});
+
+            SQLiteStatement insert = db.compileStatement("INSERT OR REPLACE INTO " + TABLE_WEATHER_SLOTS + "(" +
+                    COLUMN_WEATHER_CELL + ", " + COLUMN_SLOT_TIME + ", " + COLUMN_WEATHER_CONDITION + ", " +
+                    COLUMN_TEMPERATURE + ", " + COLUMN_HUMIDITY + ", " + COLUMN_WIND_SPEED + ", " +
+                    COLUMN_PRECIPITATION + ", " + COLUMN_EXPIRES_AT + ") VALUES (?, ?, ?, ?, ?, ?, ?, ?)");
+            try {
+                for (ForecastSlot slot : slots) {
+                    insert.clearBindings();
+                    insert.bindLong(1, cell);
+                    insert.bindLong(2, slot.getTime());
+                    if (slot.getCondition() != null) {
+                        insert.bindString(3, slot.getCondition());
+                    }
+                    insert.bindDouble(4, slot.getTemperature());
+                    insert.bindLong(5, slot.getHumidity());
+                    insert.bindDouble(6, slot.getWindSpeed());
+                    insert.bindDouble(7, slot.getPrecipitation());
+                    insert.bindLong(8, expiresAt);
+                    insert.executeInsert();
+                }
+            } finally {
+                insert.close();
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    // Unexpired forecast slots for the cell containing (lat, lng) with fromMs <= slot time < toMs
+    public List<ForecastSlot> getForecastSlots(double lat, double lng, long fromMs, long toMs) {
+        List<ForecastSlot> slots = new ArrayList<>();
+        SQLiteDatabase db = this.getReadableDatabase();
+
+        String query = "SELECT " + COLUMN_SLOT_TIME + ", " + COLUMN_WEATHER_CONDITION + ", " + COLUMN_TEMPERATURE + ", " +
+                COLUMN_HUMIDITY + ", " + COLUMN_WIND_SPEED + ", " + COLUMN_PRECIPITATION +
+                " FROM " + TABLE_WEATHER_SLOTS +
+                " WHERE " + COLUMN_WEATHER_CELL + " = ? AND " + COLUMN_SLOT_TIME + " >= ? AND " + COLUMN_SLOT_TIME + " < ?" +
+                " AND " + COLUMN_EXPIRES_AT + " > ?" +
+                " ORDER BY " + COLUMN_SLOT_TIME;
+
+        Cursor cursor = db.rawQuery(query, new String[]{
+                String.valueOf(GeoGrid.weatherCellOf(lat, lng)),
+                String.valueOf(fromMs),
+                String.valueOf(toMs),
+                String.valueOf(System.currentTimeMillis())
+        });
+        try {
+            while (cursor.moveToNext()) {
+                slots.add(new ForecastSlot(cursor.getLong(0), cursor.getString(1), cursor.getDouble(2),
+                        cursor.getInt(3), cursor.getDouble(4), cursor.getDouble(5)));
+            }
+        } finally {
+            cursor.close();
+        }
+        return slots;
+    }
+
+    // Share of getCachedWeather lookups answered from the cache since the process started
+    public double getWeatherCacheHitRatio() {
+        long hits = weatherCacheHits.get();
+        long total = hits + weatherCacheMisses.get();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    // ==================== OSM SYNC METHODS ====================
+
+    // OSM data timestamp the tile was last synced through, or 0 if it never completed a sync
+    public long getOsmTileWatermark(String tileKey) {
+        SQLiteDatabase db = this.getReadableDatabase();
+        Cursor cursor = db.query(TABLE_OSM_SYNC, new String[]{COLUMN_SYNCED_THROUGH},
+                COLUMN_TILE_KEY + " = ?", new String[]{tileKey}, null, null, null);
+        try {
+            return cursor.moveToFirst() ? cursor.getLong(0) : 0;
+        } finally {
+            cursor.close();
+        }
+    }
+
+    public void setOsmTileWatermark(String tileKey, long syncedThrough) {
+        SQLiteDatabase db = this.getWritableDatabase();
+        ContentValues values = new ContentValues();
+        values.put(COLUMN_TILE_KEY, tileKey);
+        values.put(COLUMN_SYNCED_THROUGH, syncedThrough);
+        db.insertWithOnConflict(TABLE_OSM_SYNC, null, values, SQLiteDatabase.CONFLICT_REPLACE);
+    }
+
+    // Forget what has been written to Firestore, so the next refresh fetches every tile in full
+    // and rewrites every venue instead of skipping those whose fingerprint matches
+    public void resetOsmSyncState() {
+        SQLiteDatabase db = this.getWritableDatabase();
+        db.beginTransactionNonExclusive();
+        try {
+            db.delete(TABLE_OSM_SYNC, null, null);
+            ContentValues values = new ContentValues();
+            values.putNull(COLUMN_CONTENT_HASH);
+            db.update(TABLE_VENUES, values, COLUMN_CONTENT_HASH + " IS NOT NULL", null);
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    // Ids of OSM-sourced venues located in [south, north) x [west, east) that no booking or
+    // favorite references, i.e. the ones a sync may delete when OSM drops them
+    public Set<String> getDeletableOsmVenueIdsInBox(double south, double west, double north, double east) {
+        Set<String> ids = new HashSet<>();
+        SQLiteDatabase db = this.getReadableDatabase();
+        Cursor cursor = db.rawQuery("SELECT " + COLUMN_ID + " FROM " + TABLE_VENUES
+                        + " WHERE " + COLUMN_ID + " GLOB 'osm_[nw][0-9]*' AND " + VENUE_UNREFERENCED
+                        + " AND " + COLUMN_LATITUDE + " >= ? AND " + COLUMN_LATITUDE + " < ?"
+                        + " AND " + COLUMN_LONGITUDE + " >= ? AND " + COLUMN_LONGITUDE + " < ?",
+                new String[]{String.valueOf(south), String.valueOf(north),
+                        String.valueOf(west), String.valueOf(east)});
+        try {
+            while (cursor.moveToNext()) {
+                ids.add(cursor.getString(0));
+            }
+        } finally {
+            cursor.close();
+        }
+        return ids;
+    }
+
+    // Stored content fingerprints by venue id; ids without a row or a fingerprint are absent
+    public Map<String, String> getVenueContentHashes(List<String> venueIds) {
+        Map<String, String> hashes = new HashMap<>();
+        if (venueIds == null || venueIds.isEmpty()) return hashes;
+
+        SQLiteDatabase db = this.getReadableDatabase();
+        // Stay well below SQLite's 999 bound-parameter limit
+        for (int from = 0; from < venueIds.size(); from += UPSERT_CHUNK_SIZE) {
+            List<String> chunk = venueIds.subList(from, Math.min(from + UPSERT_CHUNK_SIZE, venueIds.size()));
+            StringBuilder placeholders = new StringBuilder();
+            for (int i = 0; i < chunk.size(); i++) {
+                placeholders.append(i == 0 ? "?" : ", ?");
+            }
+
+            Cursor cursor = db.rawQuery("SELECT " + COLUMN_ID + ", " + COLUMN_CONTENT_HASH
+                            + " FROM " + TABLE_VENUES + " WHERE " + COLUMN_ID + " IN (" + placeholders + ")"
+                            + " AND " + COLUMN_CONTENT_HASH + " IS NOT NULL",
+                    chunk.toArray(new String[0]));
+            try {
+                while (cursor.moveToNext()) {
+                    hashes.put(cursor.getString(0), cursor.getString(1));
+                }
+            } finally {
+                cursor.close();
+            }
+        }
+        return hashes;
+    }
+
+    // Skips venues that a booking or favorite still references
+    public int deleteVenues(Collection<String> venueIds) {
+        if (venueIds == null || venueIds.isEmpty()) return 0;
+
+        SQLiteDatabase db = this.getWritableDatabase();
+        int deleted = 0;
+        db.beginTransactionNonExclusive();
+        try {
+            for (String venueId : venueIds) {
+                deleted += db.delete(TABLE_VENUES, COLUMN_ID + " = ? AND " + VENUE_UNREFERENCED,
+                        new String[]{venueId});
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+        return deleted;
+    }
+
     // ==================== SEARCH HISTORY METHODS ====================
 
     public void saveSearchHistory(String userId, String query, Map<String, Object> filters, int resultCount) {
@@ -807,9 +2091,9 @@ public class DatabaseHelper extends SQLiteOpenHelper {
         values.put(COLUMN_SEARCH_QUERY, query);
         values.put(COLUMN_SEARCH_FILTERS, gson.toJson(filters));
         values.put(COLUMN_RESULT_COUNT, resultCount);
+        values.put("searched_at", System.currentTimeMillis());
 
         db.insert(TABLE_SEARCH_HISTORY, null, values);
-        db.close();
     }
 
     public List<SearchHistory> getRecentSearches(String userId, int limit) {
@@ -821,115 +2105,129 @@ public class DatabaseHelper extends SQLiteOpenHelper {
                 "ORDER BY searched_at DESC LIMIT ?";
 
         Cursor cursor = db.rawQuery(query, new String[]{userId, String.valueOf(limit)});
-
-        if (cursor.moveToFirst()) {
-            do {
+        try {
+            int searchIdIndex = cursor.getColumnIndexOrThrow(COLUMN_SEARCH_ID);
+            int userIdIndex = cursor.getColumnIndexOrThrow(COLUMN_USER_ID);
+            int queryIndex = cursor.getColumnIndexOrThrow(COLUMN_SEARCH_QUERY);
+            int filtersIndex = cursor.getColumnIndexOrThrow(COLUMN_SEARCH_FILTERS);
+            int resultCountIndex = cursor.getColumnIndexOrThrow(COLUMN_RESULT_COUNT);
+            int searchedAtIndex = cursor.getColumnIndexOrThrow("searched_at");
+            Type mapType = new TypeToken<Map<String, Object>>(){}.getType();
+
+            while (cursor.moveToNext()) {
                 SearchHistory search = new SearchHistory();
-                search.setSearchId(cursor.getInt(cursor.getColumnIndexOrThrow(COLUMN_SEARCH_ID)));
-                search.setUserId(cursor.getString(cursor.getColumnIndexOrThrow(COLUMN_USER_ID)));
-                search.setSearchQuery(cursor.getString(cursor.getColumnIndexOrThrow(COLUMN_SEARCH_QUERY)));
+                search.setSearchId(cursor.getInt(searchIdIndex));
+                search.setUserId(cursor.getString(userIdIndex));
+                search.setSearchQuery(cursor.getString(queryIndex));
 
-                String filtersJson = cursor.getString(cursor.getColumnIndexOrThrow(COLUMN_SEARCH_FILTERS));
+                String filtersJson = cursor.getString(filtersIndex);
                 if (filtersJson != null) {
-                    Type mapType = new TypeToken<Map<String, Object>>(){}.getType();
                     Map<String, Object> filters = gson.fromJson(filtersJson, mapType);
                     search.setFilters(filters);
                 }
 
-                search.setResultCount(cursor.getInt(cursor.getColumnIndexOrThrow(COLUMN_RESULT_COUNT)));
-                search.setSearchedAt(cursor.getString(cursor.getColumnIndexOrThrow("searched_at")));
+                search.setResultCount(cursor.getInt(resultCountIndex));
+                search.setSearchedAt(cursor.getLong(searchedAtIndex));
 
                 searches.add(search);
-            } while (cursor.moveToNext());
+            }
+        } finally {
+            cursor.close();
         }
-
-        cursor.close();
-        db.close();
         return searches;
     }
 
     // ==================== VIEW COUNT METHODS ====================
 
+    // Immediate single increment; screens should go through VenueViewCounter instead
     public void incrementVenueViews(String venueId) {
-        SQLiteDatabase db = this.getWritableDatabase();
         try {
-            int currentViews = getVenueViews(venueId);
-            ContentValues values = new ContentValues();
-            values.put(COLUMN_VIEW_COUNT, currentViews + 1);
-            values.put(COLUMN_UPDATED_AT, dateFormat.format(new Date()));
-
-            db.update(TABLE_VENUES, values, COLUMN_ID + " = ?", new String[]{venueId});
-            Log.d("DatabaseHelper", "Incremented views for venue: " + venueId);
+            addVenueViews(Collections.singletonMap(venueId, 1L));
         } catch (Exception e) {
             Log.e("DatabaseHelper", "Error incrementing venue views: " + e.getMessage());
-        } finally {
-            db.close();
         }
     }
 
-    private int getVenueViews(String venueId) {
-        SQLiteDatabase db = this.getReadableDatabase();
-        int views = 0;
+    /**
+     * Adds buffered view counts in one transaction. The increment happens inside the UPDATE, so
+     * it is atomic with respect to other writers. Errors are thrown so the caller can retry.
+     */
+    public void addVenueViews(Map<String, Long> viewsByVenue) {
+        if (viewsByVenue == null || viewsByVenue.isEmpty()) return;
 
+        SQLiteDatabase db = this.getWritableDatabase();
+        SQLiteStatement update = db.compileStatement("UPDATE " + TABLE_VENUES +
+                " SET " + COLUMN_VIEW_COUNT + " = " + COLUMN_VIEW_COUNT + " + ? WHERE " + COLUMN_ID + " = ?");
+        db.beginTransactionNonExclusive();
         try {
-            String query = "SELECT " + COLUMN_VIEW_COUNT + " FROM " + TABLE_VENUES +
-                    " WHERE " + COLUMN_ID + " = ?";
-            Cursor cursor = db.rawQuery(query, new String[]{venueId});
-
-            if (cursor.moveToFirst()) {
-                int columnIndex = cursor.getColumnIndex(COLUMN_VIEW_COUNT);
-                if (columnIndex >= 0) {
-                    views = cursor.getInt(columnIndex);
-                }
+            for (Map.Entry<String, Long> entry : viewsByVenue.entrySet()) {
+                update.bindLong(1, entry.getValue());
+                update.bindString(2, entry.getKey());
+                update.executeUpdateDelete();
+                addTrendingActivity(db, entry.getKey(), TRENDING_WEIGHT_VIEW, entry.getValue());
             }
-            cursor.close();
-        } catch (Exception e) {
-            Log.e("DatabaseHelper", "Error getting venue views: " + e.getMessage());
+            db.setTransactionSuccessful();
         } finally {
-            db.close();
+            db.endTransaction();
+            update.close();
         }
-        return views;
     }
 
-    public List<Venue> getTrendingVenues(int limit) {
-        List<Venue> venues = new ArrayList<>();
-        SQLiteDatabase db = this.getReadableDatabase();
+    // ==================== TRENDING METHODS ====================
 
-        try {
-            // Check if view_count column exists
-            if (isColumnExists(db, TABLE_VENUES, COLUMN_VIEW_COUNT)) {
-                String query = "SELECT * FROM " + TABLE_VENUES +
-                        " ORDER BY " + COLUMN_VIEW_COUNT + " DESC, " + COLUMN_RATING + " DESC" +
-                        " LIMIT " + limit;
-                Cursor cursor = db.rawQuery(query, null);
-
-                if (cursor.moveToFirst()) {
-                    do {
-                        venues.add(cursorToVenue(cursor));
-                    } while (cursor.moveToNext());
-                }
-                cursor.close();
-            } else {
-                // Fallback if column doesn't exist
-                Log.w("DatabaseHelper", COLUMN_VIEW_COUNT + " column missing, using rating only");
-                String query = "SELECT * FROM " + TABLE_VENUES +
-                        " ORDER BY " + COLUMN_RATING + " DESC" +
-                        " LIMIT " + limit;
-                Cursor cursor = db.rawQuery(query, null);
-
-                if (cursor.moveToFirst()) {
-                    do {
-                        venues.add(cursorToVenue(cursor));
-                    } while (cursor.moveToNext());
-                }
-                cursor.close();
-            }
-        } catch (Exception e) {
-            Log.e("DatabaseHelper", "Error getting trending venues: " + e.getMessage());
-        } finally {
-            db.close();
+    /**
+     * Forward decay: an event at time t adds weight * 2^((t - epoch) / halfLife). Older events
+     * are never rewritten, yet relative to any "now" each one counts weight * 2^-(age / halfLife),
+     * so ordering by the stored score ranks venues by exponentially decayed activity.
+     */
+    private static double trendingWeight(double weight, long timeMs) {
+        return weight * Math.pow(2, (double) (timeMs - TRENDING_EPOCH_MS) / TRENDING_HALF_LIFE_MS);
+    }
+
+    private void addTrendingActivity(SQLiteDatabase db, String venueId, double weight, long count) {
+        if (venueId == null) return;
+
+        long now = System.currentTimeMillis();
+        db.execSQL("INSERT OR IGNORE INTO " + TABLE_VENUE_TRENDING + "(" + COLUMN_VENUE_ID + ") VALUES (?)",
+                new Object[]{venueId});
+        db.execSQL("UPDATE " + TABLE_VENUE_TRENDING +
+                        " SET " + COLUMN_TRENDING_SCORE + " = " + COLUMN_TRENDING_SCORE + " + ?, " +
+                        COLUMN_LAST_EVENT_AT + " = ? WHERE " + COLUMN_VENUE_ID + " = ?",
+                new Object[]{trendingWeight(weight, now) * count, now, venueId});
+    }
+
+    // Top-N read of idx_venue_trending_score, topped up with best-rated venues if activity is sparse
+    public List<VenueSummary> getTrendingVenueSummaries(int limit) {
+        List<VenueSummary> summaries = queryVenueSummaries("SELECT " + prefixed("v", SUMMARY_PROJECTION) +
+                " FROM " + TABLE_VENUE_TRENDING + " t" +
+                " INNER JOIN " + TABLE_VENUES + " v ON v." + COLUMN_ID + " = t." + COLUMN_VENUE_ID +
+                " ORDER BY t." + COLUMN_TRENDING_SCORE + " DESC LIMIT " + limit, null);
+        if (summaries.size() >= limit) return summaries;
+
+        Set<String> seen = new HashSet<>();
+        for (VenueSummary summary : summaries) {
+            seen.add(summary.getId());
         }
-        return venues;
+        List<VenueSummary> topRated = queryVenueSummaries("SELECT " + SUMMARY_PROJECTION + " FROM " + TABLE_VENUES +
+                " ORDER BY " + COLUMN_RATING + " DESC, " + COLUMN_ID + " LIMIT " + (limit + seen.size()), null);
+        for (VenueSummary summary : topRated) {
+            if (summaries.size() >= limit) break;
+            if (seen.add(summary.getId())) summaries.add(summary);
+        }
+        return summaries;
+    }
+
+    public List<Venue> getTrendingVenues(int limit) {
+        List<String> ids = new ArrayList<>();
+        for (VenueSummary summary : getTrendingVenueSummaries(limit)) {
+            ids.add(summary.getId());
+        }
+        return getVenuesByIds(ids);
+    }
+
+    // "a, b" -> "v.a, v.b" for projections used in joins
+    private static String prefixed(String alias, String projection) {
+        return alias + "." + projection.replace(", ", ", " + alias + ".");
     }
 
     // ==================== HELPER CLASSES ====================
@@ -944,27 +2242,143 @@ public class DatabaseHelper extends SQLiteOpenHelper {
         }
     }
 
+    private static class VenueDistance {
+        final VenueSummary summary;
+        final double distanceKm;
+
+        VenueDistance(VenueSummary summary, double distanceKm) {
+            this.summary = summary;
+            this.distanceKm = distanceKm;
+        }
+    }
+
+    public static class BookingLocation {
+        public final double latitude;
+        public final double longitude;
+        public final long eventDate;
+
+        public BookingLocation(double latitude, double longitude, long eventDate) {
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.eventDate = eventDate;
+        }
+    }
+
+    public static class CachedWeather {
+        public final String data;
+        public final long expiresAt;
+
+        public CachedWeather(String data, long expiresAt) {
+            this.data = data;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    public static class UpsertResult {
+        public int inserted;
+        public int updated;
+        public int unchanged;
+        public int skipped;
+
+        @Override
+        public String toString() {
+            return "inserted=" + inserted + ", updated=" + updated +
+                    ", unchanged=" + unchanged + ", skipped=" + skipped;
+        }
+    }
+
     // ==================== DATABASE MAINTENANCE ====================
 
     public void clearOldWeatherCache() {
         SQLiteDatabase db = this.getWritableDatabase();
         db.delete(TABLE_WEATHER_CACHE, COLUMN_EXPIRES_AT + " < ?",
                 new String[]{String.valueOf(System.currentTimeMillis())});
-        db.close();
+        db.delete(TABLE_WEATHER_SLOTS, COLUMN_EXPIRES_AT + " < ?",
+                new String[]{String.valueOf(System.currentTimeMillis())});
+    }
+
+    public void clearOldRecommendations() {
+        SQLiteDatabase db = this.getWritableDatabase();
+        db.delete(TABLE_AI_RECOMMENDATIONS, COLUMN_CREATED_AT + " < ?",
+                new String[]{String.valueOf(System.currentTimeMillis() - RECOMMENDATION_TTL_MS)});
     }
 
     public void clearOldSearchHistory(int daysToKeep) {
         SQLiteDatabase db = this.getWritableDatabase();
-        String query = "DELETE FROM " + TABLE_SEARCH_HISTORY +
-                " WHERE searched_at < datetime('now', '-" + daysToKeep + " days')";
-        db.execSQL(query);
-        db.close();
+        long cutoff = System.currentTimeMillis() - daysToKeep * 24L * 3600000;
+        db.delete(TABLE_SEARCH_HISTORY, "searched_at < ?", new String[]{String.valueOf(cutoff)});
+    }
+
+    public void pruneTrending() {
+        SQLiteDatabase db = this.getWritableDatabase();
+        db.delete(TABLE_VENUE_TRENDING, COLUMN_LAST_EVENT_AT + " < ?",
+                new String[]{String.valueOf(System.currentTimeMillis() - TRENDING_RETENTION_MS)});
+    }
+
+    /**
+     * Housekeeping for DatabaseMaintenanceWorker; never call it on the main thread. The light
+     * pass only deletes expired rows; the full pass also checks indexes, refreshes planner
+     * statistics and returns free pages to the file system. Returns each step's duration in
+     * millis, in run order.
+     */
+    public Map<String, Long> runMaintenance(boolean full) {
+        assertNotMainThread("runMaintenance");
+        SQLiteDatabase db = this.getWritableDatabase();
+        Map<String, Long> timings = new LinkedHashMap<>();
+        long start = SystemClock.elapsedRealtime();
+
+        clearOldWeatherCache();
+        start = recordStep(timings, "weather_cache", start);
+        clearOldRecommendations();
+        start = recordStep(timings, "recommendations", start);
+        clearOldSearchHistory(30);
+        start = recordStep(timings, "search_history", start);
+        pruneTrending();
+        start = recordStep(timings, "trending", start);
+        if (!full) return timings;
+
+        for (String index : MAINTAINED_INDEXES) {
+            db.execSQL(index);
+        }
+        start = recordStep(timings, "indexes", start);
+        db.execSQL("ANALYZE");
+        start = recordStep(timings, "analyze", start);
+
+        if (DatabaseUtils.longForQuery(db, "PRAGMA auto_vacuum", null) != 2) {
+            // auto_vacuum only changes on VACUUM; pay for one full VACUUM to switch to incremental
+            db.execSQL("PRAGMA auto_vacuum = INCREMENTAL");
+            vacuumDatabase();
+        } else {
+            // Step the pragma to completion; a single step frees only one page
+            Cursor cursor = db.rawQuery("PRAGMA incremental_vacuum", null);
+            try {
+                cursor.getCount();
+            } finally {
+                cursor.close();
+            }
+        }
+        recordStep(timings, "vacuum", start);
+        return timings;
+    }
+
+    private static long recordStep(Map<String, Long> timings, String step, long startedAt) {
+        long now = SystemClock.elapsedRealtime();
+        timings.put(step, now - startedAt);
+        return now;
+    }
+
+    private static void assertNotMainThread(String operation) {
+        if (Looper.myLooper() == Looper.getMainLooper()) {
+            throw new IllegalStateException(operation + " must not run on the main thread");
+        }
     }
 
     public void vacuumDatabase() {
+        assertNotMainThread("vacuumDatabase");
         SQLiteDatabase db = this.getWritableDatabase();
         db.execSQL("VACUUM");
-        db.close();
+        // venues has no INTEGER PRIMARY KEY, so VACUUM may renumber the rowids the index points at
+        rebuildVenuesFts(db);
     }
 
     // ==================== STATISTICS ====================
@@ -980,7 +2394,6 @@ public class DatabaseHelper extends SQLiteOpenHelper {
         }
 
         cursor.close();
-        db.close();
         return count;
     }
 
@@ -1018,86 +2431,156 @@ public class DatabaseHelper extends SQLiteOpenHelper {
         }
         cursor.close();
 
-        db.close();
+        // By amenity
+        String amenityQuery = "SELECT a." + COLUMN_AMENITY_CODE + ", COUNT(*) FROM " + TABLE_VENUE_AMENITIES + " va" +
+                " INNER JOIN " + TABLE_AMENITIES + " a ON a." + COLUMN_AMENITY_ID + " = va." + COLUMN_AMENITY_ID +
+                " GROUP BY va." + COLUMN_AMENITY_ID;
+        cursor = db.rawQuery(amenityQuery, null);
+        while (cursor.moveToNext()) {
+            stats.put("amenity_" + cursor.getString(0), cursor.getInt(1));
+        }
+        cursor.close();
+
         return stats;
     }
 
-    public List<Venue> getRecommendedVenues(String userId) {
-        List<Venue> venues = new ArrayList<>();
-        SQLiteDatabase db = this.getReadableDatabase();
+    // ==================== USER PREFERENCE METHODS ====================
 
-        // Get user's booking history
-        List<Booking> bookings = getUserBookings(userId);
+    // Folds one booking or favourite into the user's profile; called inside the caller's transaction
+    private void addPreferenceSignal(SQLiteDatabase db, String userId, String venueId, double weight,
+                                     boolean isBooking, int guestCount) {
+        if (userId == null || venueId == null) return;
 
-        if (bookings.isEmpty()) {
-            // If no bookings, return trending venues
-            return getTrendingVenues(10);
+        String category = null;
+        String city = null;
+        Double price = null;
+        Cursor cursor = db.rawQuery("SELECT " + COLUMN_CATEGORY + ", " + COLUMN_CITY + ", " + COLUMN_PRICE_RANGE +
+                " FROM " + TABLE_VENUES + " WHERE " + COLUMN_ID + " = ?", new String[]{venueId});
+        try {
+            if (cursor.moveToFirst()) {
+                category = cursor.getString(0);
+                city = cursor.getString(1);
+                price = cursor.isNull(2) ? null : cursor.getDouble(2);
+            }
+        } finally {
+            cursor.close();
         }
 
-        // Analyze user preferences from booking history
-        String preferredCategory = getPreferredCategory(bookings);
-        String preferredCity = getPreferredCity(bookings);
-        int avgGuestCount = getAverageGuestCount(bookings);
-
-        // Query venues matching preferences
-        String query = "SELECT * FROM " + TABLE_VENUES +
-                " WHERE " + COLUMN_CATEGORY + " LIKE ?" +
-                " AND " + COLUMN_CITY + " LIKE ?" +
-                " AND " + COLUMN_CAPACITY + " >= ?" +
-                " ORDER BY rating DESC" +
-                " LIMIT 10";
-
-        Cursor cursor = db.rawQuery(query, new String[]{
-                "%" + preferredCategory + "%",
-                "%" + preferredCity + "%",
-                String.valueOf(avgGuestCount)
-        });
-
-        if (cursor.moveToFirst()) {
-            do {
-                venues.add(cursorToVenue(cursor));
-            } while (cursor.moveToNext());
+        db.execSQL("INSERT OR IGNORE INTO " + TABLE_USER_PROFILE + "(" + COLUMN_USER_ID + ") VALUES (?)",
+                new Object[]{userId});
+        db.execSQL("UPDATE " + TABLE_USER_PROFILE + " SET "
+                        + COLUMN_BOOKING_COUNT + " = " + COLUMN_BOOKING_COUNT + " + ?, "
+                        + COLUMN_FAVORITE_COUNT + " = " + COLUMN_FAVORITE_COUNT + " + ?, "
+                        + COLUMN_GUEST_COUNT_SUM + " = " + COLUMN_GUEST_COUNT_SUM + " + ?"
+                        + " WHERE " + COLUMN_USER_ID + " = ?",
+                new Object[]{isBooking ? 1 : 0, isBooking ? 0 : 1, isBooking ? guestCount : 0, userId});
+        if (price != null) {
+            db.execSQL("UPDATE " + TABLE_USER_PROFILE + " SET "
+                            + COLUMN_PRICE_COUNT + " = " + COLUMN_PRICE_COUNT + " + 1, "
+                            + COLUMN_PRICE_SUM + " = " + COLUMN_PRICE_SUM + " + ?, "
+                            + COLUMN_PRICE_MIN + " = min(IFNULL(" + COLUMN_PRICE_MIN + ", ?), ?), "
+                            + COLUMN_PRICE_MAX + " = max(IFNULL(" + COLUMN_PRICE_MAX + ", ?), ?)"
+                            + " WHERE " + COLUMN_USER_ID + " = ?",
+                    new Object[]{price, price, price, price, price, userId});
         }
 
-        cursor.close();
-        db.close();
-        return venues;
+        addPreferenceWeight(db, userId, DIMENSION_CATEGORY, category, weight);
+        addPreferenceWeight(db, userId, DIMENSION_CITY, city, weight);
     }
 
-    private String getPreferredCategory(List<Booking> bookings) {
-        Map<String, Integer> categoryCount = new HashMap<>();
+    // Undoes addFavorite's preference signal; the favourite row must already be deleted
+    private void removeFavoriteSignal(SQLiteDatabase db, String userId, String venueId) {
+        if (userId == null || venueId == null) return;
 
-        for (Booking booking : bookings) {
-            Venue venue = getVenue(booking.getVenueId());
-            if (venue != null) {
-                String category = venue.getCategory();
-                categoryCount.put(category, categoryCount.getOrDefault(category, 0) + 1);
+        String category = null;
+        String city = null;
+        Double price = null;
+        Cursor cursor = db.rawQuery("SELECT " + COLUMN_CATEGORY + ", " + COLUMN_CITY + ", " + COLUMN_PRICE_RANGE +
+                " FROM " + TABLE_VENUES + " WHERE " + COLUMN_ID + " = ?", new String[]{venueId});
+        try {
+            if (cursor.moveToFirst()) {
+                category = cursor.getString(0);
+                city = cursor.getString(1);
+                price = cursor.isNull(2) ? null : cursor.getDouble(2);
             }
+        } finally {
+            cursor.close();
         }
 
-        String preferred = "banquet_hall";
-        int maxCount = 0;
-        for (Map.Entry<String, Integer> entry : categoryCount.entrySet()) {
-            if (entry.getValue() > maxCount) {
-                maxCount = entry.getValue();
-                preferred = entry.getKey();
-            }
+        db.execSQL("UPDATE " + TABLE_USER_PROFILE + " SET "
+                        + COLUMN_FAVORITE_COUNT + " = max(" + COLUMN_FAVORITE_COUNT + " - 1, 0)"
+                        + " WHERE " + COLUMN_USER_ID + " = ?",
+                new Object[]{userId});
+        if (price != null) {
+            // Min and max can't be unwound incrementally; recompute them from what is left
+            String remaining = "SELECT v." + COLUMN_PRICE_RANGE + " FROM " + TABLE_VENUES + " v WHERE v." + COLUMN_ID
+                    + " IN (SELECT " + COLUMN_VENUE_ID + " FROM " + TABLE_BOOKINGS + " WHERE " + COLUMN_USER_ID + " = ?1"
+                    + " UNION ALL SELECT " + COLUMN_VENUE_ID + " FROM " + TABLE_FAVORITES + " WHERE " + COLUMN_USER_ID + " = ?1)";
+            db.execSQL("UPDATE " + TABLE_USER_PROFILE + " SET "
+                            + COLUMN_PRICE_COUNT + " = max(" + COLUMN_PRICE_COUNT + " - 1, 0), "
+                            + COLUMN_PRICE_SUM + " = " + COLUMN_PRICE_SUM + " - ?2, "
+                            + COLUMN_PRICE_MIN + " = (SELECT min(" + COLUMN_PRICE_RANGE + ") FROM (" + remaining + ")), "
+                            + COLUMN_PRICE_MAX + " = (SELECT max(" + COLUMN_PRICE_RANGE + ") FROM (" + remaining + "))"
+                            + " WHERE " + COLUMN_USER_ID + " = ?1",
+                    new Object[]{userId, price});
         }
-        return preferred;
+
+        addPreferenceWeight(db, userId, DIMENSION_CATEGORY, category, -PREFERENCE_WEIGHT_FAVORITE);
+        addPreferenceWeight(db, userId, DIMENSION_CITY, city, -PREFERENCE_WEIGHT_FAVORITE);
+        // A value with no signal left must not win the top-preference lookups
+        db.execSQL("DELETE FROM " + TABLE_USER_PREFERENCES + " WHERE " + COLUMN_USER_ID + " = ? AND "
+                + COLUMN_WEIGHT + " <= 0", new Object[]{userId});
     }
 
-    private String getPreferredCity(List<Booking> bookings) {
-        return "Mumbai";
+    private void addPreferenceWeight(SQLiteDatabase db, String userId, String dimension, String value, double weight) {
+        if (value == null) return;
+
+        db.execSQL("INSERT OR IGNORE INTO " + TABLE_USER_PREFERENCES + "(" + COLUMN_USER_ID + ", "
+                + COLUMN_DIMENSION + ", " + COLUMN_VALUE + ") VALUES (?, ?, ?)", new Object[]{userId, dimension, value});
+        db.execSQL("UPDATE " + TABLE_USER_PREFERENCES + " SET " + COLUMN_WEIGHT + " = " + COLUMN_WEIGHT + " + ?"
+                        + " WHERE " + COLUMN_USER_ID + " = ? AND " + COLUMN_DIMENSION + " = ? AND " + COLUMN_VALUE + " = ?",
+                new Object[]{weight, userId, dimension, value});
     }
 
-    private int getAverageGuestCount(List<Booking> bookings) {
-        if (bookings.isEmpty()) return 100;
+    // Top value of one preference histogram, as a scalar subquery taking the user id
+    private static String topPreferenceSubquery(String dimension) {
+        return "(SELECT " + COLUMN_VALUE + " FROM " + TABLE_USER_PREFERENCES
+                + " WHERE " + COLUMN_USER_ID + " = ?1 AND " + COLUMN_DIMENSION + " = '" + dimension + "'"
+                + " ORDER BY " + COLUMN_WEIGHT + " DESC LIMIT 1)";
+    }
 
-        int total = 0;
-        for (Booking booking : bookings) {
-            total += booking.getGuestCount();
+    /**
+     * Best-rated venues in the user's most booked/favourited category and city that fit their
+     * average party size and price band, in one query against the stored profile. Falls back
+     * to trending venues for users without history.
+     */
+    public List<Venue> getRecommendedVenues(String userId) {
+        List<Venue> venues = new ArrayList<>();
+        SQLiteDatabase db = this.getReadableDatabase();
+
+        String query = "SELECT v.* FROM " + TABLE_VENUES + " v, " + TABLE_USER_PROFILE + " p" +
+                " WHERE p." + COLUMN_USER_ID + " = ?1" +
+                " AND v." + COLUMN_CATEGORY + " = " + topPreferenceSubquery(DIMENSION_CATEGORY) +
+                " AND v." + COLUMN_CITY + " = " + topPreferenceSubquery(DIMENSION_CITY) +
+                " AND (p." + COLUMN_BOOKING_COUNT + " = 0 OR v." + COLUMN_CAPACITY + " >= p." +
+                COLUMN_GUEST_COUNT_SUM + " / p." + COLUMN_BOOKING_COUNT + ")" +
+                " AND (p." + COLUMN_PRICE_MAX + " IS NULL OR v." + COLUMN_PRICE_RANGE + " <= p." +
+                COLUMN_PRICE_MAX + " * 1.25)" +
+                " ORDER BY v." + COLUMN_RATING + " DESC" +
+                " LIMIT 10";
+
+        Cursor cursor = db.rawQuery(query, new String[]{userId});
+        try {
+            while (cursor.moveToNext()) {
+                venues.add(cursorToVenue(cursor));
+            }
+        } finally {
+            cursor.close();
         }
 
-        return total / bookings.size();
+        if (venues.isEmpty()) {
+            return getTrendingVenues(10);
+        }
+        return venues;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,69 @@
+package com.arsalankhan.venuego;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.work.Constraints;
+import androidx.work.Data;
+import androidx.work.ExistingPeriodicWorkPolicy;
+import androidx.work.ExistingWorkPolicy;
+import androidx.work.OneTimeWorkRequest;
+import androidx.work.PeriodicWorkRequest;
+import androidx.work.WorkManager;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Database housekeeping kept off the startup path. A light pass (expired rows only) runs
+ * shortly after launch, once the first frame is up; the full pass with index checks, ANALYZE
+ * and incremental vacuum runs daily while the device is idle and charging.
+ */
+public class DatabaseMaintenanceWorker extends Worker {
+    private static final String STARTUP_WORK_NAME = "database_maintenance_startup";
+    private static final String PERIODIC_WORK_NAME = "database_maintenance";
+    private static final String KEY_FULL = "full";
+    private static final long STARTUP_DELAY_SECONDS = 15;
+
+    public DatabaseMaintenanceWorker(@NonNull Context context, @NonNull WorkerParameters params) {
+        super(context, params);
+    }
+
+    public static void schedule(Context context) {
+        WorkManager workManager = WorkManager.getInstance(context);
+
+        OneTimeWorkRequest startup = new OneTimeWorkRequest.Builder(DatabaseMaintenanceWorker.class)
+                .setInitialDelay(STARTUP_DELAY_SECONDS, TimeUnit.SECONDS)
+                .setInputData(new Data.Builder().putBoolean(KEY_FULL, false).build())
+                .build();
+        workManager.enqueueUniqueWork(STARTUP_WORK_NAME, ExistingWorkPolicy.KEEP, startup);
+
+        Constraints idleCharging = new Constraints.Builder()
+                .setRequiresCharging(true)
+                .setRequiresDeviceIdle(true)
+                .build();
+        PeriodicWorkRequest periodic = new PeriodicWorkRequest.Builder(
+                DatabaseMaintenanceWorker.class, 1, TimeUnit.DAYS)
+                .setConstraints(idleCharging)
+                .setInputData(new Data.Builder().putBoolean(KEY_FULL, true).build())
+                .build();
+        workManager.enqueueUniquePeriodicWork(PERIODIC_WORK_NAME, ExistingPeriodicWorkPolicy.KEEP, periodic);
+    }
+
+    @NonNull
+    @Override
+    public Result doWork() {
+        boolean full = getInputData().getBoolean(KEY_FULL, false);
+        try {
+            Map<String, Long> timings = DatabaseHelper.getInstance(getApplicationContext()).runMaintenance(full);
+            Log.d("DatabaseMaintenance", (full ? "Full" : "Light") + " maintenance took " + timings + " ms");
+            return Result.success();
+        } catch (Exception e) {
+            Log.e("DatabaseMaintenance", "Maintenance failed: " + e.getMessage());
+            return Result.retry();
+        }
+    }
+}
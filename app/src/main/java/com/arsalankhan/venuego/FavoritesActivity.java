@@ -27,7 +27,7 @@ public class FavoritesActivity extends AppCompatActivity {
         setContentView(binding.getRoot());
 
         authService = new AuthService();
-        databaseHelper = new DatabaseHelper(this);
+        databaseHelper = DatabaseHelper.getInstance(this);
 
         if (!authService.isUserLoggedIn()) {
             redirectToLogin();
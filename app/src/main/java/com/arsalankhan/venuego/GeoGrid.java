@@ -0,0 +1,106 @@
+package com.arsalankhan.venuego;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fixed lat/lng grid used as a spatial index. A cell id is row * CELLS_PER_ROW + col, so all
+ * cells of one grid row form a contiguous id range and a bounding box maps to one
+ * BETWEEN range per row on an ordinary B-tree index.
+ */
+public final class GeoGrid {
+    public static final double CELL_SIZE_DEG = 0.01; // ~1.1 km
+    private static final long CELLS_PER_ROW = 36000; // 360 / CELL_SIZE_DEG
+
+    // Coarser grid for data that barely changes over a few km, such as weather
+    public static final double WEATHER_CELL_SIZE_DEG = 0.05; // ~5.5 km
+
+    private static final double EARTH_RADIUS_KM = 6371;
+    public static final double KM_PER_DEGREE = 111.195;
+
+    private GeoGrid() {
+    }
+
+    public static int row(double lat) {
+        return (int) Math.floor((lat + 90) / CELL_SIZE_DEG);
+    }
+
+    public static int col(double lon) {
+        return (int) Math.floor((lon + 180) / CELL_SIZE_DEG);
+    }
+
+    public static long cellId(int row, int col) {
+        return row * CELLS_PER_ROW + col;
+    }
+
+    public static long cellOf(double lat, double lon) {
+        return cellId(row(lat), col(lon));
+    }
+
+    // Cell id on a grid of the given cell size, numbered the same way as the main grid
+    public static long cellOf(double lat, double lon, double cellSizeDeg) {
+        long cellsPerRow = Math.round(360 / cellSizeDeg);
+        long row = (long) Math.floor((lat + 90) / cellSizeDeg);
+        long col = (long) Math.floor((lon + 180) / cellSizeDeg);
+        return row * cellsPerRow + col;
+    }
+
+    public static long weatherCellOf(double lat, double lon) {
+        return cellOf(lat, lon, WEATHER_CELL_SIZE_DEG);
+    }
+
+    // {minLat, maxLat, minLon, maxLon} of the box enclosing a circle
+    public static double[] boundingBox(double lat, double lon, double radiusKm) {
+        double latDelta = radiusKm / KM_PER_DEGREE;
+        double cosLat = Math.max(0.01, Math.cos(Math.toRadians(Math.min(89.9, Math.abs(lat) + latDelta))));
+        double lonDelta = radiusKm / (KM_PER_DEGREE * cosLat);
+        return new double[]{lat - latDelta, lat + latDelta, lon - lonDelta, lon + lonDelta};
+    }
+
+    // Inclusive cell id ranges covering a bounding box, one per grid row
+    public static List<long[]> cellRanges(double[] box) {
+        return cellRanges(box, null);
+    }
+
+    /**
+     * Cell id ranges covering outer but not inner, where inner is a box inside outer (such as a
+     * smaller box around the same centre). Used to search ring by ring without re-reading cells.
+     */
+    public static List<long[]> cellRanges(double[] outer, double[] inner) {
+        List<long[]> ranges = new ArrayList<>();
+        // Clamp so a box past the antimeridian never spills into the neighbouring row's ids
+        int fromCol = Math.max(0, col(outer[2]));
+        int toCol = (int) Math.min(CELLS_PER_ROW - 1, col(outer[3]));
+
+        int innerFromRow = inner != null ? row(inner[0]) : Integer.MAX_VALUE;
+        int innerToRow = inner != null ? row(inner[1]) : Integer.MIN_VALUE;
+        int innerFromCol = inner != null ? Math.max(0, col(inner[2])) : 0;
+        int innerToCol = inner != null ? (int) Math.min(CELLS_PER_ROW - 1, col(inner[3])) : 0;
+
+        for (int r = row(outer[0]); r <= row(outer[1]); r++) {
+            if (r < innerFromRow || r > innerToRow) {
+                ranges.add(new long[]{cellId(r, fromCol), cellId(r, toCol)});
+                continue;
+            }
+            if (fromCol < innerFromCol) {
+                ranges.add(new long[]{cellId(r, fromCol), cellId(r, innerFromCol - 1)});
+            }
+            if (innerToCol < toCol) {
+                ranges.add(new long[]{cellId(r, innerToCol + 1), cellId(r, toCol)});
+            }
+        }
+        return ranges;
+    }
+
+    // Haversine distance in kilometers
+    public static double distanceKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2) +
+                Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) *
+                        Math.sin(dLon / 2) * Math.sin(dLon / 2);
+
+        return EARTH_RADIUS_KM * 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+    }
+}
@@ -23,14 +23,16 @@ import java.util.List;
 import java.util.Map;
 
 public class MainActivity extends AppCompatActivity {
+    private static final int NEARBY_VENUE_COUNT = 20;
+
     private ActivityMainBinding binding;
     private AuthService authService;
     private VenueService venueService;
     private FusedLocationProviderClient fusedLocationClient;
     private VenueAdapter venueAdapter;
     private VenueAdapter trendingAdapter;
-    private List<Venue> nearbyVenues = new ArrayList<>();
-    private List<Venue> trendingVenues = new ArrayList<>();
+    private List<VenueSummary> nearbyVenues = new ArrayList<>();
+    private List<VenueSummary> trendingVenues = new ArrayList<>();
     private DatabaseHelper databaseHelper;
 
     @Override
@@ -42,7 +44,7 @@ public class MainActivity extends AppCompatActivity {
         authService = new AuthService();
         venueService = new VenueService();
         fusedLocationClient = LocationServices.getFusedLocationProviderClient(this);
-        databaseHelper = new DatabaseHelper(this);
+        databaseHelper = DatabaseHelper.getInstance(this);
 
         // Check authentication
         if (!authService.isUserLoggedIn()) {
@@ -163,10 +165,11 @@ public class MainActivity extends AppCompatActivity {
 
     private void loadNearbyVenues(Location location) {
         // Try local database first
-        List<Venue> localVenues = databaseHelper.getVenuesNearby(
+        List<VenueSummary> localVenues = databaseHelper.getNearestVenueSummaries(
                 location.getLatitude(),
                 location.getLongitude(),
-                20.0
+                NEARBY_VENUE_COUNT,
+                null
         );
 
         if (!localVenues.isEmpty()) {
@@ -181,7 +184,7 @@ public class MainActivity extends AppCompatActivity {
                         @Override
                         public void onSuccess(List<Venue> venues) {
                             nearbyVenues.clear();
-                            nearbyVenues.addAll(venues);
+                            nearbyVenues.addAll(VenueSummary.fromVenues(venues));
                             venueAdapter.notifyDataSetChanged();
 
                             if (venues.isEmpty()) {
@@ -203,10 +206,10 @@ public class MainActivity extends AppCompatActivity {
     }
 
     private void loadNearbyVenuesFromDB() {
-        List<Venue> venues = databaseHelper.getAllVenues();
+        List<VenueSummary> venues = databaseHelper.getVenueSummariesPage(null, 10);
         if (!venues.isEmpty()) {
             nearbyVenues.clear();
-            nearbyVenues.addAll(venues.subList(0, Math.min(10, venues.size())));
+            nearbyVenues.addAll(venues);
             venueAdapter.notifyDataSetChanged();
             binding.tvNoNearby.setVisibility(View.GONE);
         } else {
@@ -223,7 +226,7 @@ public class MainActivity extends AppCompatActivity {
             @Override
             public void onSuccess(List<Venue> venues) {
                 nearbyVenues.clear();
-                nearbyVenues.addAll(venues);
+                nearbyVenues.addAll(VenueSummary.fromVenues(venues));
                 venueAdapter.notifyDataSetChanged();
 
                 if (venues.isEmpty()) {
@@ -242,7 +245,7 @@ public class MainActivity extends AppCompatActivity {
 
     private void loadTrendingVenues() {
         // Try local database first
-        List<Venue> localTrending = databaseHelper.getTrendingVenues(10);
+        List<VenueSummary> localTrending = databaseHelper.getTrendingVenueSummaries(10);
 
         if (!localTrending.isEmpty()) {
             trendingVenues.clear();
@@ -254,7 +257,7 @@ public class MainActivity extends AppCompatActivity {
                 @Override
                 public void onSuccess(List<Venue> venues) {
                     trendingVenues.clear();
-                    trendingVenues.addAll(venues);
+                    trendingVenues.addAll(VenueSummary.fromVenues(venues));
                     trendingAdapter.notifyDataSetChanged();
 
                     // Cache locally
@@ -270,11 +273,7 @@ public class MainActivity extends AppCompatActivity {
     }
 
     private void cacheVenuesLocally(List<Venue> venues) {
-        new Thread(() -> {
-            for (Venue venue : venues) {
-                databaseHelper.insertVenue(venue);
-            }
-        }).start();
+        new Thread(() -> databaseHelper.upsertVenues(venues)).start();
     }
 
     @Override
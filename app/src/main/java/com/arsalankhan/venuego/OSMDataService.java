@@ -3,24 +3,49 @@ package com.arsalankhan.venuego;
 import android.content.Context;
 import android.util.Log;
 
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldPath;
 import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.QuerySnapshot;
 import com.google.firebase.firestore.WriteBatch;
+import com.google.gson.stream.JsonReader;
 
-import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 
 import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TimeZone;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import okhttp3.Call;
 import okhttp3.Callback;
+import okhttp3.EventListener;
 import okhttp3.MediaType;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
@@ -30,13 +55,59 @@ import okhttp3.Response;
 public class OSMDataService {
     private static final String OSM_OVERPass_URL = "https://overpass-api.de/api/interpreter";
     private static final String NOMINATIM_URL = "https://nominatim.openstreetmap.org/reverse";
+
+    // Overpass politeness: the public instance grants a couple of slots per client
+    private static final int DEFAULT_MAX_CONCURRENT_REQUESTS = 2;
+    private static final double DEFAULT_REQUESTS_PER_SECOND = 1.0;
+    private static final int MAX_ATTEMPTS = 4;
+    private static final long INITIAL_BACKOFF_MS = 2000;
+    private static final long MAX_BACKOFF_MS = 30000;
+    // Streamed venues are flushed in batches well under Firestore's 500-write limit
+    private static final int WRITE_BATCH_SIZE = 200;
+    // Query tiles are cells of a fixed grid, so neighbouring cities share tiles instead of
+    // downloading their overlap twice
+    private static final double TILE_SIZE_DEG = 0.25; // ~28 km
+    private static final String OSM_DOC_PREFIX = "osm_";
+    private static final long FIRESTORE_TIMEOUT_SECONDS = 60;
+
+    // Everything ingestion cares about inside the query's global bbox, kept as set .venues
+    private static final String VENUE_SELECTION =
+            "(\n" +
+            // Community centers and halls
+            "  node[\"amenity\"=\"community_centre\"];\n" +
+            "  node[\"amenity\"=\"events_venue\"];\n" +
+            "  node[\"amenity\"=\"hall\"];\n" +
+            "  node[\"building\"=\"hall\"][\"name\"];\n" +
+            // Parks and open grounds
+            "  node[\"leisure\"=\"park\"][\"name\"];\n" +
+            "  node[\"leisure\"=\"garden\"][\"name\"];\n" +
+            "  way[\"leisure\"=\"park\"][\"name\"];\n" +
+            // Sports facilities
+            "  node[\"leisure\"=\"stadium\"];\n" +
+            "  node[\"leisure\"=\"sports_centre\"];\n" +
+            "  node[\"building\"=\"stadium\"];\n" +
+            // Conference and auditorium
+            "  node[\"amenity\"=\"conference_centre\"];\n" +
+            "  node[\"building\"=\"auditorium\"];\n" +
+            // Hotels with event facilities
+            "  node[\"tourism\"=\"hotel\"][\"name\"];\n" +
+            // Restaurants with party halls
+            "  node[\"amenity\"=\"restaurant\"][\"name\"];\n" +
+            ")->.venues;\n";
+
+    private int maxConcurrentRequests = DEFAULT_MAX_CONCURRENT_REQUESTS;
+    private TokenBucket rateLimiter =
+            new TokenBucket(DEFAULT_MAX_CONCURRENT_REQUESTS, DEFAULT_REQUESTS_PER_SECOND);
+    private final Random jitter = new Random();
+    private final AtomicLong bytesTransferred = new AtomicLong();
     private FirebaseFirestore firestore;
     private OkHttpClient client;
+    private final String overpassUrl;
     private Context context;
     private DatabaseHelper databaseHelper;
 
-    // Maharashtra cities and their coordinates
-    private static final Map<String, double[]> MAHARASHTRA_CITIES = new HashMap<String, double[]>() {{
+    // Maharashtra cities and their coordinates (also used by Climatology)
+    static final Map<String, double[]> MAHARASHTRA_CITIES = new HashMap<String, double[]>() {{
         put("Mumbai", new double[]{19.0760, 72.8777});
         put("Pune", new double[]{18.5204, 73.8567});
         put("Nagpur", new double[]{21.1458, 79.0882});
@@ -60,18 +131,98 @@ public class OSMDataService {
     }};
 
     public OSMDataService() {
-        firestore = FirebaseFirestore.getInstance();
+        this(FirebaseFirestore.getInstance(), OSM_OVERPass_URL);
+    }
+
+    // Tests point the service at a local Overpass stand-in
+    OSMDataService(FirebaseFirestore firestore, String overpassUrl) {
+        this.firestore = firestore;
+        this.overpassUrl = overpassUrl;
         client = new OkHttpClient.Builder()
                 .connectTimeout(30, TimeUnit.SECONDS)
                 .readTimeout(30, TimeUnit.SECONDS)
                 .writeTimeout(30, TimeUnit.SECONDS)
+                .eventListener(new EventListener() {
+                    @Override
+                    public void responseBodyEnd(Call call, long byteCount) {
+                        bytesTransferred.addAndGet(byteCount);
+                    }
+                })
                 .build();
     }
 
+    // Coverage radius around each city centre; larger metros get a wider area
+    static double coverageRadiusKm(String city) {
+        return city.equals("Mumbai") || city.equals("Pune") ? 25 : 15;
+    }
+
+    // Closest covered city to a coordinate
+    static String nearestCity(double lat, double lon) {
+        String nearest = "Mumbai";
+        double best = Double.MAX_VALUE;
+        for (Map.Entry<String, double[]> entry : MAHARASHTRA_CITIES.entrySet()) {
+            double distance = GeoGrid.distanceKm(lat, lon, entry.getValue()[0], entry.getValue()[1]);
+            if (distance < best) {
+                best = distance;
+                nearest = entry.getKey();
+            }
+        }
+        return nearest;
+    }
+
+    // Closest city whose coverage circle contains the coordinate, or null if none does. Not always
+    // nearestCity: a point just closer to a small city can still lie only in a big city's circle
+    static String nearestCoveringCity(double lat, double lon) {
+        String nearest = null;
+        double best = Double.MAX_VALUE;
+        for (Map.Entry<String, double[]> entry : MAHARASHTRA_CITIES.entrySet()) {
+            double distance = GeoGrid.distanceKm(lat, lon, entry.getValue()[0], entry.getValue()[1]);
+            if (distance <= coverageRadiusKm(entry.getKey()) && distance < best) {
+                best = distance;
+                nearest = entry.getKey();
+            }
+        }
+        return nearest;
+    }
+
+    // Grid tiles touching any city's coverage circle, in a stable order; tiles never overlap
+    static List<Tile> coverageTiles() {
+        Map<String, Tile> tiles = new LinkedHashMap<>();
+        for (Map.Entry<String, double[]> entry : MAHARASHTRA_CITIES.entrySet()) {
+            double[] box = GeoGrid.boundingBox(entry.getValue()[0], entry.getValue()[1],
+                    coverageRadiusKm(entry.getKey()));
+            int fromRow = (int) Math.floor(box[0] / TILE_SIZE_DEG);
+            int toRow = (int) Math.floor(box[1] / TILE_SIZE_DEG);
+            int fromCol = (int) Math.floor(box[2] / TILE_SIZE_DEG);
+            int toCol = (int) Math.floor(box[3] / TILE_SIZE_DEG);
+            for (int row = fromRow; row <= toRow; row++) {
+                for (int col = fromCol; col <= toCol; col++) {
+                    Tile tile = new Tile(row, col);
+                    if (!tiles.containsKey(tile.key)) {
+                        tiles.put(tile.key, tile);
+                    }
+                }
+            }
+        }
+        return new ArrayList<>(tiles.values());
+    }
+
     public OSMDataService(Context context) {
         this();
         this.context = context;
-        this.databaseHelper = new DatabaseHelper(context);
+        this.databaseHelper = DatabaseHelper.getInstance(context);
+    }
+
+    /**
+     * Tunes city ingestion: at most {@code maxConcurrentRequests} Overpass calls in flight and
+     * no more than {@code requestsPerSecond} started on average.
+     */
+    public void setIngestionLimits(int maxConcurrentRequests, double requestsPerSecond) {
+        if (maxConcurrentRequests < 1 || requestsPerSecond <= 0) {
+            throw new IllegalArgumentException("Limits must be positive");
+        }
+        this.maxConcurrentRequests = maxConcurrentRequests;
+        this.rateLimiter = new TokenBucket(maxConcurrentRequests, requestsPerSecond);
     }
 
     // NEW: Simple callback interface for backward compatibility
@@ -84,7 +235,22 @@ public class OSMDataService {
     public void fetchAndStoreMaharashtraVenues(SimpleOSMDataCallback callback) {
         Log.d("OSMDataService", "Starting Maharashtra venues fetch (simple)...");
 
-        fetchAllMaharashtraVenues(new OSMDataCallback() {
+        fetchAllMaharashtraVenues(withoutProgress(callback));
+    }
+
+    /**
+     * Incremental sync: each tile that has synced before only downloads elements changed since
+     * its watermark, plus a list of ids used to drop venues deleted or retagged in OSM. Tiles
+     * without a watermark are fetched in full. Needs the Context constructor for local state.
+     */
+    public void syncChangedVenues(SimpleOSMDataCallback callback) {
+        Log.d("OSMDataService", "Starting incremental Maharashtra venues sync...");
+
+        refreshTiles(true, withoutProgress(callback));
+    }
+
+    private static OSMDataCallback withoutProgress(SimpleOSMDataCallback callback) {
+        return new OSMDataCallback() {
             @Override
             public void onSuccess(int venuesAdded, String city) {
                 callback.onSuccess(venuesAdded);
@@ -99,7 +265,7 @@ public class OSMDataService {
             public void onProgress(int progress, String message) {
                 // Ignore progress for simple callback
             }
-        });
+        };
     }
 
     // Original interface with progress
@@ -112,143 +278,407 @@ public class OSMDataService {
     public void fetchAllMaharashtraVenues(OSMDataCallback callback) {
         Log.d("OSMDataService", "Starting Maharashtra venues fetch...");
 
-        new Thread(() -> {
-            int totalVenuesAdded = 0;
-            List<String> cities = new ArrayList<>(MAHARASHTRA_CITIES.keySet());
+        refreshTiles(false, callback);
+    }
 
-            for (int i = 0; i < cities.size(); i++) {
-                String city = cities.get(i);
-                double[] coordinates = MAHARASHTRA_CITIES.get(city);
+    private void refreshTiles(boolean incremental, OSMDataCallback callback) {
+        List<Tile> tiles = coverageTiles();
+        RefreshRun run = new RefreshRun(incremental, bytesTransferred.get());
+        ExecutorService workers = Executors.newFixedThreadPool(maxConcurrentRequests);
+        // Callbacks run one at a time in submission order, so progress only ever moves forward
+        ExecutorService callbacks = Executors.newSingleThreadExecutor();
+        AtomicInteger totalVenuesAdded = new AtomicInteger();
+        // Every tile plus the legacy document sweep
+        AtomicInteger remaining = new AtomicInteger(tiles.size() + 1);
+        int[] completed = {0};
+
+        Runnable finishIfDone = () -> {
+            if (remaining.decrementAndGet() == 0) {
+                // Deletions are only decided once every tile has reported which venues it holds,
+                // and watermarks only move once those deletions are applied
+                try {
+                    removeDeletedVenues(run);
+                    advanceWatermarks(run);
+                } catch (Exception e) {
+                    Log.e("OSMDataService", "Error removing deleted venues: " + e.getMessage());
+                    callbacks.execute(() -> callback.onFailure("Error removing deleted venues: " + e.getMessage()));
+                }
+                Log.d("OSMDataService", "Refresh finished: " + tiles.size() + " tiles, "
+                        + (bytesTransferred.get() - run.startBytes) + " bytes, "
+                        + totalVenuesAdded.get() + " documents written, "
+                        + run.unchanged.get() + " unchanged skipped, "
+                        + run.deleted.get() + " deleted, "
+                        + run.duplicates.get() + " duplicates skipped");
+                callbacks.execute(() -> callback.onSuccess(totalVenuesAdded.get(), "Maharashtra"));
+                callbacks.shutdown();
+            }
+        };
 
-                callback.onProgress((i * 100) / cities.size(),
-                        "Fetching venues for " + city + "...");
+        workers.execute(() -> {
+            try {
+                removeLegacyDocuments(run);
+            } catch (Exception e) {
+                // Harmless to leave for now; the next refresh sweeps again
+                Log.w("OSMDataService", "Legacy document sweep failed: " + e.getMessage());
+            }
+            finishIfDone.run();
+        });
 
+        for (Tile tile : tiles) {
+            workers.execute(() -> {
                 try {
-                    int venuesAdded = fetchCityVenues(city, coordinates[0], coordinates[1]);
-                    totalVenuesAdded += venuesAdded;
-
-                    Log.d("OSMDataService", "Added " + venuesAdded + " venues for " + city);
+                    int venuesAdded = fetchTileVenuesWithRetry(tile, run);
+                    totalVenuesAdded.addAndGet(venuesAdded);
 
-                    // Small delay to avoid rate limiting
-                    Thread.sleep(2000);
+                    Log.d("OSMDataService", "Added " + venuesAdded + " venues for tile " + tile.key);
                 } catch (Exception e) {
-                    Log.e("OSMDataService", "Error fetching " + city + ": " + e.getMessage());
-                    callback.onFailure("Error fetching " + city + ": " + e.getMessage());
+                    Log.e("OSMDataService", "Error fetching tile " + tile.key + ": " + e.getMessage());
+                    callbacks.execute(() -> callback.onFailure("Error fetching tile " + tile.key + ": " + e.getMessage()));
                 }
-            }
 
-            callback.onSuccess(totalVenuesAdded, "Maharashtra");
-        }).start();
+                callbacks.execute(() -> {
+                    completed[0]++;
+                    callback.onProgress((completed[0] * 100) / tiles.size(),
+                            "Fetched area " + completed[0] + "/" + tiles.size());
+                });
+
+                finishIfDone.run();
+            });
+        }
+        workers.shutdown();
+    }
+
+    // Waits for a rate-limit token, then retries 429/504 with exponential backoff and jitter
+    private int fetchTileVenuesWithRetry(Tile tile, RefreshRun run) throws Exception {
+        long backoffMs = INITIAL_BACKOFF_MS;
+        for (int attempt = 1; ; attempt++) {
+            rateLimiter.acquire();
+            try {
+                return fetchTileVenues(tile, run);
+            } catch (OverpassBusyException e) {
+                if (attempt >= MAX_ATTEMPTS) {
+                    throw e;
+                }
+                long waitMs = Math.max(backoffMs, e.retryAfterMs) + jitter.nextInt(500);
+                Log.w("OSMDataService", "Overpass busy (" + e.code + ") for tile " + tile.key
+                        + ", retrying in " + waitMs + " ms");
+                Thread.sleep(waitMs);
+                backoffMs = Math.min(backoffMs * 2, MAX_BACKOFF_MS);
+            }
+        }
     }
 
-    private int fetchCityVenues(String city, double lat, double lon) throws Exception {
-        String query = buildCityQuery(city, lat, lon);
+    private int fetchTileVenues(Tile tile, RefreshRun run) throws Exception {
+        long watermark = run.incremental && databaseHelper != null
+                ? databaseHelper.getOsmTileWatermark(tile.key) : 0;
+        String query = buildTileQuery(tile, watermark > 0 ? formatOsmTimestamp(watermark) : null);
         RequestBody body = RequestBody.create(query, MediaType.parse("text/plain"));
 
         Request request = new Request.Builder()
-                .url(OSM_OVERPass_URL)
+                .url(overpassUrl)
                 .post(body)
                 .build();
 
-        Response response = client.newCall(request).execute();
+        try (Response response = client.newCall(request).execute()) {
+            if (response.code() == 429 || response.code() == 504) {
+                throw new OverpassBusyException(response.code(), parseRetryAfterMs(response));
+            }
+            if (!response.isSuccessful()) {
+                throw new IOException("HTTP error: " + response.code());
+            }
+
+            // Parse straight off the socket; only one batch of venues is ever held in memory
+            Set<String> listedOsmIds = new HashSet<>();
+            VenueBatchWriter writer = new VenueBatchWriter(run);
+            long dataTimestamp = parseOSMResponse(response.body().charStream(), tile, writer, listedOsmIds);
+            int written = writer.finish();
+
+            // The watermark is held back until the end-of-run deletion pass has been applied
+            if (databaseHelper != null) {
+                collectUnlistedVenues(tile, listedOsmIds, run);
+                if (dataTimestamp > 0) {
+                    run.pendingWatermarks.put(tile.key, dataTimestamp);
+                }
+            }
+            return written;
+        }
+    }
 
-        if (!response.isSuccessful()) {
-            throw new IOException("HTTP error: " + response.code());
+    // Local venues in the tile that Overpass no longer lists were deleted, retagged or moved
+    // Venues a booking or favorite references are kept, in SQLite and Firestore alike
+    private void collectUnlistedVenues(Tile tile, Set<String> listedOsmIds, RefreshRun run) throws IOException {
+        Set<String> localIds = databaseHelper.getDeletableOsmVenueIdsInBox(tile.south, tile.west, tile.north, tile.east);
+        // An empty listing for a tile we hold venues in is far more likely a truncated
+        // response than every venue disappearing at once; fail the tile rather than wipe it
+        if (listedOsmIds.isEmpty() && !localIds.isEmpty()) {
+            throw new IOException("Overpass listed no venues for tile " + tile.key
+                    + " which has " + localIds.size() + " locally; not deleting");
         }
 
-        String jsonResponse = response.body().string();
-        List<Venue> venues = parseOSMResponse(jsonResponse, city);
+        for (String venueId : localIds) {
+            if (!listedOsmIds.contains(venueId.substring(OSM_DOC_PREFIX.length()))) {
+                run.unlistedVenueIds.add(venueId);
+            }
+        }
+    }
 
-        if (venues.isEmpty()) {
-            return 0;
+    // Runs after every tile has finished, so seenOsmIds holds each venue written anywhere this run
+    private void removeDeletedVenues(RefreshRun run) throws Exception {
+        List<String> stale = new ArrayList<>();
+        for (String venueId : run.unlistedVenueIds) {
+            // A venue that moved into another tile was rewritten there under the same id
+            if (!run.seenOsmIds.contains(venueId.substring(OSM_DOC_PREFIX.length()))) {
+                stale.add(venueId);
+            }
+        }
+        if (stale.isEmpty()) return;
+
+        for (int from = 0; from < stale.size(); from += WRITE_BATCH_SIZE) {
+            WriteBatch batch = firestore.batch();
+            for (String venueId : stale.subList(from, Math.min(from + WRITE_BATCH_SIZE, stale.size()))) {
+                batch.delete(firestore.collection("venues").document(venueId));
+            }
+            Tasks.await(batch.commit(), FIRESTORE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        }
+        run.deleted.addAndGet(databaseHelper.deleteVenues(stale));
+        Log.d("OSMDataService", "Removed " + stale.size() + " venues no longer in OSM");
+    }
+
+    private void advanceWatermarks(RefreshRun run) {
+        for (Map.Entry<String, Long> entry : run.pendingWatermarks.entrySet()) {
+            databaseHelper.setOsmTileWatermark(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Deletes Firestore documents still keyed osm_<id>_<city> from before venues were fetched by
+     * tile (local rows went in the v19 migration). Their ids continue with a digit where current
+     * ids continue with n or w, so they are exactly the ids in [osm_0, osm_:). Documents whose
+     * row the migration kept for a booking or favorite are left in place.
+     */
+    private void removeLegacyDocuments(RefreshRun run) throws Exception {
+        Query legacy = firestore.collection("venues")
+                .whereGreaterThanOrEqualTo(FieldPath.documentId(), OSM_DOC_PREFIX + "0")
+                .whereLessThan(FieldPath.documentId(), OSM_DOC_PREFIX + ":")
+                .orderBy(FieldPath.documentId())
+                .limit(WRITE_BATCH_SIZE);
+
+        int removed = 0;
+        DocumentSnapshot last = null;
+        while (true) {
+            Query page = last == null ? legacy : legacy.startAfter(last);
+            QuerySnapshot snapshot = Tasks.await(page.get(), FIRESTORE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            if (snapshot.isEmpty()) break;
+
+            WriteBatch batch = firestore.batch();
+            int inBatch = 0;
+            for (DocumentSnapshot doc : snapshot.getDocuments()) {
+                if (databaseHelper != null && databaseHelper.getVenue(doc.getId()) != null) continue;
+                batch.delete(doc.getReference());
+                inBatch++;
+            }
+            if (inBatch > 0) {
+                Tasks.await(batch.commit(), FIRESTORE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+                removed += inBatch;
+            }
+            last = snapshot.getDocuments().get(snapshot.size() - 1);
         }
 
-        // Store in Firestore
-        return storeVenuesInFirestore(venues);
+        if (removed > 0) {
+            run.deleted.addAndGet(removed);
+            Log.d("OSMDataService", "Removed " + removed + " legacy per-city venue documents");
+        }
+    }
+
+    private long parseRetryAfterMs(Response response) {
+        String retryAfter = response.header("Retry-After");
+        if (retryAfter == null) return 0;
+        try {
+            return Long.parseLong(retryAfter.trim()) * 1000;
+        } catch (NumberFormatException e) {
+            return 0;
+        }
     }
 
-    private String buildCityQuery(String city, double lat, double lon) {
-        // Adjust radius based on city size
-        int radius = city.equals("Mumbai") || city.equals("Pune") ? 25000 : 15000;
+    private String buildTileQuery(Tile tile, String newerThan) {
+        // The global bbox applies to every statement; 'out center' gives ways a single point
+        // instead of pulling in all their member nodes
+        String query = "[out:json][timeout:60][bbox:" + tile.south + "," + tile.west + ","
+                + tile.north + "," + tile.east + "];\n" + VENUE_SELECTION;
+        if (newerThan == null) {
+            return query + ".venues out center;";
+        }
 
-        return "[out:json][timeout:60];\n" +
+        // Ids of everything still matching (a few bytes each) reveal deletions; full bodies
+        // are only sent for elements edited since the watermark
+        return query +
+                ".venues out ids;\n" +
                 "(\n" +
-                // Community centers and halls
-                "  node[\"amenity\"=\"community_centre\"](around:" + radius + "," + lat + "," + lon + ");\n" +
-                "  node[\"amenity\"=\"events_venue\"](around:" + radius + "," + lat + "," + lon + ");\n" +
-                "  node[\"amenity\"=\"hall\"](around:" + radius + "," + lat + "," + lon + ");\n" +
-                "  node[\"building\"=\"hall\"][\"name\"](around:" + radius + "," + lat + "," + lon + ");\n" +
-                "  \n" +
-                // Parks and open grounds
-                "  node[\"leisure\"=\"park\"][\"name\"](around:" + radius + "," + lat + "," + lon + ");\n" +
-                "  node[\"leisure\"=\"garden\"][\"name\"](around:" + radius + "," + lat + "," + lon + ");\n" +
-                "  way[\"leisure\"=\"park\"][\"name\"](around:" + radius + "," + lat + "," + lon + ");\n" +
-                "  \n" +
-                // Sports facilities
-                "  node[\"leisure\"=\"stadium\"](around:" + radius + "," + lat + "," + lon + ");\n" +
-                "  node[\"leisure\"=\"sports_centre\"](around:" + radius + "," + lat + "," + lon + ");\n" +
-                "  node[\"building\"=\"stadium\"](around:" + radius + "," + lat + "," + lon + ");\n" +
-                "  \n" +
-                // Conference and auditorium
-                "  node[\"amenity\"=\"conference_centre\"](around:" + radius + "," + lat + "," + lon + ");\n" +
-                "  node[\"building\"=\"auditorium\"](around:" + radius + "," + lat + "," + lon + ");\n" +
-                "  \n" +
-                // Hotels with event facilities
-                "  node[\"tourism\"=\"hotel\"][\"name\"](around:" + radius + "," + lat + "," + lon + ");\n" +
-                "  \n" +
-                // Restaurants with party halls
-                "  node[\"amenity\"=\"restaurant\"][\"name\"](around:" + radius + "," + lat + "," + lon + ");\n" +
+                "  node.venues(newer:\"" + newerThan + "\");\n" +
+                "  way.venues(newer:\"" + newerThan + "\");\n" +
                 ");\n" +
-                "out body;\n" +
-                ">;\n" +
-                "out skel qt;";
+                "out center;";
     }
 
-    private List<Venue> parseOSMResponse(String jsonResponse, String city) throws JSONException {
-        List<Venue> venues = new ArrayList<>();
-        JSONObject response = new JSONObject(jsonResponse);
-        JSONArray elements = response.getJSONArray("elements");
+    // Overpass timestamps are whole seconds in UTC
+    private static SimpleDateFormat osmTimestampFormat() {
+        SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss'Z'", Locale.US);
+        format.setTimeZone(TimeZone.getTimeZone("UTC"));
+        return format;
+    }
+
+    private static String formatOsmTimestamp(long millis) {
+        return osmTimestampFormat().format(new Date(millis));
+    }
 
-        for (int i = 0; i < elements.length(); i++) {
-            JSONObject element = elements.getJSONObject(i);
-            Venue venue = parseOSMElement(element, city);
-            if (venue != null && !venue.getName().equals("Unknown Venue")) {
-                venues.add(venue);
+    private static long parseOsmTimestamp(String timestamp) {
+        try {
+            return osmTimestampFormat().parse(timestamp).getTime();
+        } catch (ParseException e) {
+            Log.w("OSMDataService", "Unparseable OSM timestamp: " + timestamp);
+            return 0;
+        }
+    }
+
+    /**
+     * Pull-parses {"osm3s": {...}, "elements": [...]} and hands each usable element to the writer
+     * as it is read. Every listed element id goes into listedOsmIds. Returns the data timestamp
+     * the response reflects, or 0 if it was missing. Throws if Overpass attached a "remark", which
+     * it does instead of an error status when a query times out or runs out of memory, leaving
+     * the element list truncated.
+     */
+    long parseOSMResponse(Reader in, Tile tile, VenueSink writer, Set<String> listedOsmIds)
+            throws IOException, JSONException {
+        int parsed = 0;
+        long dataTimestamp = 0;
+        String remark = null;
+        JsonReader reader = new JsonReader(in);
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if (name.equals("osm3s")) {
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    if (reader.nextName().equals("timestamp_osm_base")) {
+                        dataTimestamp = parseOsmTimestamp(reader.nextString());
+                    } else {
+                        reader.skipValue();
+                    }
+                }
+                reader.endObject();
+                continue;
+            }
+            if (name.equals("remark")) {
+                remark = reader.nextString();
+                continue;
+            }
+            if (!name.equals("elements")) {
+                reader.skipValue();
+                continue;
+            }
+
+            reader.beginArray();
+            while (reader.hasNext()) {
+                Venue venue = readOSMElement(reader, listedOsmIds);
+                if (venue != null && !venue.getName().equals("Unknown Venue")) {
+                    writer.add(venue);
+                    parsed++;
+                }
             }
+            reader.endArray();
         }
+        reader.endObject();
 
-        Log.d("OSMDataService", "Parsed " + venues.size() + " venues for " + city);
-        return venues;
+        // The remark usually follows the elements, so it is only known once the stream is read
+        if (remark != null) {
+            throw new IOException("Overpass aborted tile " + tile.key + ": " + remark);
+        }
+        Log.d("OSMDataService", "Parsed " + parsed + " venues for tile " + tile.key);
+        return dataTimestamp;
     }
 
-    private Venue parseOSMElement(JSONObject element, String city) {
-        try {
-            JSONObject tags = element.optJSONObject("tags");
-            if (tags == null) return null;
+    private Venue readOSMElement(JsonReader reader, Set<String> listedOsmIds) throws IOException, JSONException {
+        String type = "node";
+        long id = 0;
+        double lat = Double.NaN;
+        double lon = Double.NaN;
+        JSONObject tags = null;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "type":
+                    type = reader.nextString();
+                    break;
+                case "id":
+                    id = reader.nextLong();
+                    break;
+                case "lat":
+                    lat = reader.nextDouble();
+                    break;
+                case "lon":
+                    lon = reader.nextDouble();
+                    break;
+                case "center":
+                    // Ways carry a computed centre instead of their own coordinates
+                    reader.beginObject();
+                    while (reader.hasNext()) {
+                        String name = reader.nextName();
+                        if (name.equals("lat")) {
+                            lat = reader.nextDouble();
+                        } else if (name.equals("lon")) {
+                            lon = reader.nextDouble();
+                        } else {
+                            reader.skipValue();
+                        }
+                    }
+                    reader.endObject();
+                    break;
+                case "tags":
+                    // Only the small tag map of the current element is materialised
+                    tags = new JSONObject();
+                    reader.beginObject();
+                    while (reader.hasNext()) {
+                        tags.put(reader.nextName(), reader.nextString());
+                    }
+                    reader.endObject();
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        // Node and way ids are separate namespaces in OSM, so qualify them ("n123", "w456")
+        String osmId = type.charAt(0) + String.valueOf(id);
+        listedOsmIds.add(osmId);
+
+        // Id-only listings, untagged elements and anything without coordinates carry no venue
+        if (tags == null || Double.isNaN(lat) || Double.isNaN(lon)) {
+            return null;
+        }
+
+        // Tile corners reach past the city circles; keep only what some city covers
+        String city = nearestCoveringCity(lat, lon);
+        if (city == null) {
+            return null;
+        }
 
+        return parseOSMElement(osmId, lat, lon, tags, city);
+    }
+
+    private Venue parseOSMElement(String osmId, double lat, double lon, JSONObject tags, String city) {
+        try {
             String name = tags.optString("name", "Unknown Venue");
             if (name.equals("Unknown Venue") || name.length() < 2) {
                 return null; // Skip venues without proper names
             }
 
-            // Get coordinates
-            double lat, lon;
-            if (element.has("lat") && element.has("lon")) {
-                lat = element.getDouble("lat");
-                lon = element.getDouble("lon");
-            } else if (element.has("center")) {
-                JSONObject center = element.getJSONObject("center");
-                lat = center.getDouble("lat");
-                lon = center.getDouble("lon");
-            } else {
-                return null; // No coordinates
-            }
-
             Venue venue = new Venue();
             venue.setName(name);
             venue.setLatitude(lat);
             venue.setLongitude(lon);
-            venue.setOsmId(String.valueOf(element.optLong("id", 0)));
+            venue.setOsmId(osmId);
 
             // Parse address
             String address = buildAddressFromTags(tags, city);
@@ -275,9 +705,10 @@ public class OSMDataService {
             double priceRange = calculatePriceRange(category, capacity, city);
             venue.setPriceRange(priceRange);
 
-            // Set ratings and reviews
-            venue.setRating(3.8 + (Math.random() * 1.2)); // 3.8-5.0
-            venue.setReviewCount((int)(Math.random() * 200));
+            // Set ratings and reviews; seeded by the OSM id so re-ingesting an element reproduces them
+            Random seeded = new Random(osmId.hashCode());
+            venue.setRating(3.8 + (seeded.nextDouble() * 1.2)); // 3.8-5.0
+            venue.setReviewCount(seeded.nextInt(200));
 
             // Contact information
             venue.setContactPhone(tags.optString("phone", ""));
@@ -302,6 +733,7 @@ public class OSMDataService {
             venue.setUpdatedAt(new Date());
             venue.setDataSource("osm");
             venue.setSyncStatus("synced");
+            venue.setContentHash(contentHash(venue));
 
             return venue;
 
@@ -514,44 +946,165 @@ public class OSMDataService {
         return hours;
     }
 
-    private int storeVenuesInFirestore(List<Venue> venues) {
+    /**
+     * SHA-1 over every field parseOSMElement derives from OSM, so it changes when either the
+     * OSM data or the derivation does. Timestamps and sync bookkeeping are left out.
+     */
+    static String contentHash(Venue venue) {
+        StringBuilder content = new StringBuilder();
+        Object[] fields = {
+                venue.getOsmId(), venue.getName(), venue.getLatitude(), venue.getLongitude(),
+                venue.getAddress(), venue.getCity(), venue.getState(), venue.getCategory(), venue.getType(),
+                venue.getCapacity(), venue.getAmenities(), venue.getPriceRange(), venue.getRating(),
+                venue.getReviewCount(), venue.getContactPhone(), venue.getContactEmail(), venue.getWebsite(),
+                venue.getDescription(),
+                venue.getBusinessHours() != null ? new TreeMap<>(venue.getBusinessHours()) : null,
+                venue.isHasParking(), venue.getParkingCapacity(), venue.isWifiAvailable(),
+                venue.isCateringAvailable(), venue.isWheelchairAccessible()
+        };
+        for (Object field : fields) {
+            content.append(field).append('\u001f');
+        }
+
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-1")
+                    .digest(content.toString().getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(String.format(Locale.US, "%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            // Every Android runtime ships SHA-1
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Writes the venues whose fingerprint differs from the stored one; returns how many were written
+    private int storeVenuesInFirestore(List<Venue> venues, RefreshRun run) throws IOException {
         if (venues.isEmpty()) return 0;
 
+        List<String> venueIds = new ArrayList<>(venues.size());
+        for (Venue venue : venues) {
+            // One document per OSM element, whichever city it is assigned to; keep the local
+            // row keyed the same way as the Firestore document
+            venue.setId(OSM_DOC_PREFIX + venue.getOsmId());
+            venueIds.add(venue.getId());
+        }
+
+        // Without local state there is nothing to compare against, so everything is written
+        Map<String, String> storedHashes = databaseHelper != null
+                ? databaseHelper.getVenueContentHashes(venueIds) : Collections.<String, String>emptyMap();
+
         WriteBatch batch = firestore.batch();
-        int venuesAdded = 0;
+        List<Venue> changed = new ArrayList<>();
 
         for (Venue venue : venues) {
-            // Generate document ID
-            String docId = "osm_" + venue.getOsmId() + "_" +
-                    venue.getCity().toLowerCase().replace(" ", "_");
+            if (venue.getContentHash() != null && venue.getContentHash().equals(storedHashes.get(venue.getId()))) {
+                run.unchanged.incrementAndGet();
+                continue;
+            }
 
             // Add to batch
-            batch.set(firestore.collection("venues").document(docId), venue);
-            venuesAdded++;
+            batch.set(firestore.collection("venues").document(venue.getId()), venue);
+            changed.add(venue);
         }
+        if (changed.isEmpty()) return 0;
 
         try {
-            // Commit batch
-            batch.commit();
-
-            // Also cache locally
-            cacheVenuesLocally(venues);
-
-            return venuesAdded;
+            // Commit batch; wait for it so a tile only counts as synced once its writes landed
+            Tasks.await(batch.commit(), FIRESTORE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
         } catch (Exception e) {
             Log.e("OSMDataService", "Error storing venues in Firestore: " + e.getMessage());
-            return 0;
+            throw new IOException("Error storing venues in Firestore: " + e.getMessage(), e);
         }
+
+        // Also cache locally
+        cacheVenuesLocally(changed);
+
+        return changed.size();
     }
 
+    // Receives venues one at a time as the parser reads them
+    interface VenueSink {
+        void add(Venue venue) throws IOException;
+    }
+
+    // Collects streamed venues and writes each full batch to Firestore and the local cache
+    private class VenueBatchWriter implements VenueSink {
+        private final RefreshRun run;
+        private final List<Venue> pending = new ArrayList<>();
+        private int written;
+
+        VenueBatchWriter(RefreshRun run) {
+            this.run = run;
+        }
+
+        @Override
+        public void add(Venue venue) throws IOException {
+            // Ways can cross tile edges and come back from both tiles
+            if (!run.seenOsmIds.add(venue.getOsmId())) {
+                run.duplicates.incrementAndGet();
+                return;
+            }
+            pending.add(venue);
+            if (pending.size() >= WRITE_BATCH_SIZE) {
+                flush();
+            }
+        }
+
+        int finish() throws IOException {
+            flush();
+            return written;
+        }
+
+        private void flush() throws IOException {
+            if (pending.isEmpty()) return;
+            written += storeVenuesInFirestore(pending, run);
+            pending.clear();
+        }
+    }
+
+    // State shared by all tiles of one refresh
+    private static class RefreshRun {
+        final Set<String> seenOsmIds = Collections.newSetFromMap(new ConcurrentHashMap<>());
+        // Deletion candidates and watermarks from finished tiles, applied once the run ends
+        final Set<String> unlistedVenueIds = Collections.newSetFromMap(new ConcurrentHashMap<>());
+        final Map<String, Long> pendingWatermarks = new ConcurrentHashMap<>();
+        final AtomicInteger duplicates = new AtomicInteger();
+        final AtomicInteger unchanged = new AtomicInteger();
+        final AtomicInteger deleted = new AtomicInteger();
+        final boolean incremental;
+        final long startBytes;
+
+        RefreshRun(boolean incremental, long startBytes) {
+            this.incremental = incremental;
+            this.startBytes = startBytes;
+        }
+    }
+
+    // One cell of the query grid: row/col index plus its bounding box
+    static final class Tile {
+        final String key;
+        final double south;
+        final double west;
+        final double north;
+        final double east;
+
+        Tile(int row, int col) {
+            this.key = row + "_" + col;
+            this.south = row * TILE_SIZE_DEG;
+            this.west = col * TILE_SIZE_DEG;
+            this.north = south + TILE_SIZE_DEG;
+            this.east = west + TILE_SIZE_DEG;
+        }
+    }
+
+    // Runs on an ingestion worker, after the Firestore batch for the same venues has committed
     private void cacheVenuesLocally(List<Venue> venues) {
         if (databaseHelper != null) {
-            new Thread(() -> {
-                for (Venue venue : venues) {
-                    databaseHelper.insertVenue(venue);
-                }
-                Log.d("OSMDataService", "Cached " + venues.size() + " venues locally");
-            }).start();
+            DatabaseHelper.UpsertResult result = databaseHelper.upsertVenues(venues);
+            Log.d("OSMDataService", "Cached " + venues.size() + " venues locally (" + result + ")");
         }
     }
 
@@ -614,4 +1167,50 @@ public class OSMDataService {
         void onSuccess(List<String> photoUrls);
         void onFailure(String error);
     }
-}
\ No newline at end of file
+}
+
+// Overpass rejected the request because it is overloaded (429) or timed out (504)
+class OverpassBusyException extends IOException {
+    final int code;
+    final long retryAfterMs;
+
+    OverpassBusyException(int code, long retryAfterMs) {
+        super("HTTP error: " + code);
+        this.code = code;
+        this.retryAfterMs = retryAfterMs;
+    }
+}
+
+// Token bucket shared by ingestion workers: bursts up to capacity, refills at a steady rate
+class TokenBucket {
+    private final double capacity;
+    private final double tokensPerNano;
+    private double tokens;
+    private long lastRefill;
+
+    TokenBucket(int capacity, double tokensPerSecond) {
+        this.capacity = capacity;
+        this.tokensPerNano = tokensPerSecond / TimeUnit.SECONDS.toNanos(1);
+        this.tokens = capacity;
+        this.lastRefill = System.nanoTime();
+    }
+
+    void acquire() throws InterruptedException {
+        long waitNanos;
+        while ((waitNanos = tryAcquire()) > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+
+    // Takes a token and returns 0, or returns how long to wait before one is available
+    private synchronized long tryAcquire() {
+        long now = System.nanoTime();
+        tokens = Math.min(capacity, tokens + (now - lastRefill) * tokensPerNano);
+        lastRefill = now;
+        if (tokens >= 1) {
+            tokens -= 1;
+            return 0;
+        }
+        return (long) Math.ceil((1 - tokens) / tokensPerNano);
+    }
+}
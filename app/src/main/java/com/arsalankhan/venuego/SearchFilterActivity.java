@@ -65,7 +65,7 @@ public class SearchFilterActivity extends AppCompatActivity {
         setContentView(R.layout.activity_search); // Updated layout name
 
         fusedLocationClient = LocationServices.getFusedLocationProviderClient(this);
-        databaseHelper = new DatabaseHelper(this);
+        databaseHelper = DatabaseHelper.getInstance(this);
         aiService = new AIRecommendationService(this);
 
         initializeViews();
@@ -345,19 +345,28 @@ public class SearchFilterActivity extends AppCompatActivity {
         Toast.makeText(this, "Searching venues...", Toast.LENGTH_SHORT).show();
 
         // Search in local database first
-        List<Venue> venues = databaseHelper.searchVenuesWithFilters(
-                selectedCity,
-                selectedCategories.isEmpty() ? null : selectedCategories.get(0),
-                switchOutdoor.isChecked() ? "outdoor" : "indoor",
-                guestCount,
-                maxBudget
-        );
-
-        if (venues != null && !venues.isEmpty()) {
-            showVenueResults(venues);
-        } else {
-            searchFirestoreVenues(filters);
+        HashMap<String, Object> localFilters = new HashMap<>();
+        localFilters.put("city", selectedCity);
+        if (!selectedCategories.isEmpty()) {
+            localFilters.put("category", selectedCategories.get(0));
         }
+        localFilters.put("type", switchOutdoor.isChecked() ? "outdoor" : "indoor");
+        localFilters.put("minCapacity", guestCount);
+        localFilters.put("maxPrice", maxBudget);
+
+        if (!query.isEmpty()) {
+            List<Venue> venues = databaseHelper.searchVenuesText(query, localFilters, 100);
+            if (!venues.isEmpty()) {
+                showVenueResults(venues);
+            } else {
+                searchFirestoreVenues(filters);
+            }
+            return;
+        }
+
+        // VenueListActivity pages through the local results off the main thread, and asks
+        // Firestore itself if there are none
+        showLocalResults(localFilters, filters);
     }
 
     private List<String> getSelectedChipTexts(ChipGroup chipGroup) {
@@ -404,16 +413,20 @@ public class SearchFilterActivity extends AppCompatActivity {
         startActivity(intent);
     }
 
+    private void showLocalResults(HashMap<String, Object> localFilters, Map<String, Object> remoteFilters) {
+        Intent intent = new Intent(this, VenueListActivity.class);
+        intent.putExtra("filters", localFilters);
+        intent.putExtra("remoteFilters", new HashMap<>(remoteFilters));
+        intent.putExtra("searchType", "filtered");
+        startActivity(intent);
+    }
+
     private void showEmptyState() {
         Toast.makeText(this, "No venues found matching your criteria", Toast.LENGTH_LONG).show();
     }
 
     private void cacheVenuesLocally(List<Venue> venues) {
-        new Thread(() -> {
-            for (Venue venue : venues) {
-                databaseHelper.insertVenue(venue);
-            }
-        }).start();
+        new Thread(() -> databaseHelper.upsertVenues(venues)).start();
     }
 
     @Override
@@ -423,12 +436,4 @@ public class SearchFilterActivity extends AppCompatActivity {
             loadUserLocation();
         }
     }
-
-    @Override
-    protected void onDestroy() {
-        super.onDestroy();
-        if (databaseHelper != null) {
-            databaseHelper.close();
-        }
-    }
 }
\ No newline at end of file
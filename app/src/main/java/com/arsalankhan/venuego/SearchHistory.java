@@ -8,7 +8,7 @@ class SearchHistory {
     private String searchQuery;
     private Map<String, Object> filters;
     private int resultCount;
-    private String searchedAt;
+    private long searchedAt; // epoch millis
 
     // Getters and setters
     public int getSearchId() { return searchId; }
@@ -26,6 +26,6 @@ class SearchHistory {
     public int getResultCount() { return resultCount; }
     public void setResultCount(int resultCount) { this.resultCount = resultCount; }
 
-    public String getSearchedAt() { return searchedAt; }
-    public void setSearchedAt(String searchedAt) { this.searchedAt = searchedAt; }
+    public long getSearchedAt() { return searchedAt; }
+    public void setSearchedAt(long searchedAt) { this.searchedAt = searchedAt; }
 }
\ No newline at end of file
@@ -1,5 +1,7 @@
 package com.arsalankhan.venuego;
 
+import com.google.firebase.firestore.Exclude;
+
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Date;
@@ -55,6 +57,7 @@ public class Venue implements Serializable {
     // OSM specific fields
     private String osmId;
     private Map<String, String> osmTags;
+    private String contentHash; // Fingerprint of the OSM-derived fields, see OSMDataService
     private Date lastUpdated;
     private String dataSource = "osm";
 
@@ -198,6 +201,9 @@ public class Venue implements Serializable {
     public String getOsmId() { return osmId; }
     public void setOsmId(String osmId) { this.osmId = osmId; }
 
+    public String getContentHash() { return contentHash; }
+    public void setContentHash(String contentHash) { this.contentHash = contentHash; }
+
     public Map<String, String> getOsmTags() { return osmTags; }
     public void setOsmTags(Map<String, String> osmTags) { this.osmTags = osmTags; }
 
@@ -244,6 +250,17 @@ public class Venue implements Serializable {
         }
     }
 
+    // Catalogue bitmask of the amenity list; see AmenityCatalog
+    @Exclude
+    public long getAmenityMask() {
+        return AmenityCatalog.maskOf(amenities);
+    }
+
+    @Exclude
+    public boolean hasAllAmenities(long requiredMask) {
+        return AmenityCatalog.containsAll(getAmenityMask(), requiredMask);
+    }
+
     public void addImage(String imageUrl) {
         if (images == null) {
             images = new ArrayList<>();
@@ -421,6 +438,7 @@ public class Venue implements Serializable {
         cloned.setWheelchairAccessible(this.wheelchairAccessible);
 
         cloned.setOsmId(this.osmId);
+        cloned.setContentHash(this.contentHash);
 
         if (this.osmTags != null) {
             cloned.setOsmTags(new HashMap<>(this.osmTags));
@@ -20,27 +20,26 @@ import com.bumptech.glide.Glide;
 import com.google.android.gms.maps.CameraUpdateFactory;
 import com.google.android.gms.maps.model.LatLng;
 
-import java.io.Serializable;
 import java.text.DecimalFormat;
 import java.util.List;
 
 public class VenueAdapter extends RecyclerView.Adapter<VenueAdapter.ViewHolder> {
-    private List<Venue> venues;
+    private List<VenueSummary> venues;
     private Context context;
     private boolean detailedView;
     private DecimalFormat priceFormat = new DecimalFormat("₹#,##,###");
 
-    public VenueAdapter(List<Venue> venues, Context context) {
+    public VenueAdapter(List<VenueSummary> venues, Context context) {
         this(venues, context, false);
     }
 
-    public VenueAdapter(List<Venue> venues, Context context, boolean detailedView) {
+    public VenueAdapter(List<VenueSummary> venues, Context context, boolean detailedView) {
         this.venues = venues;
         this.context = context;
         this.detailedView = detailedView;
     }
 
-    public void updateData(List<Venue> newVenues) {
+    public void updateData(List<VenueSummary> newVenues) {
         this.venues = newVenues;
         notifyDataSetChanged();
     }
@@ -56,7 +55,7 @@ public class VenueAdapter extends RecyclerView.Adapter<VenueAdapter.ViewHolder>
 
     @Override
     public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
-        Venue venue = venues.get(position);
+        VenueSummary venue = venues.get(position);
 
         holder.tvVenueName.setText(venue.getName());
         holder.tvVenueAddress.setText(venue.getAddress());
@@ -65,9 +64,9 @@ public class VenueAdapter extends RecyclerView.Adapter<VenueAdapter.ViewHolder>
         holder.tvReviewCount.setText("(" + venue.getReviewCount() + " reviews)");
 
         // Load image
-        if (venue.getImages() != null && !venue.getImages().isEmpty()) {
+        if (venue.getCoverImage() != null) {
             Glide.with(context)
-                    .load(venue.getImages().get(0))
+                    .load(venue.getCoverImage())
                     .placeholder(R.drawable.placeholder_venue_image)
                     .into(holder.ivVenueImage);
         }
@@ -80,11 +79,12 @@ public class VenueAdapter extends RecyclerView.Adapter<VenueAdapter.ViewHolder>
             holder.tvType.setText(venue.getType().equals("indoor") ? "Indoor" : "Outdoor");
 
             // Show amenities (first 3)
-            if (venue.getAmenities() != null && !venue.getAmenities().isEmpty()) {
+            List<String> amenityCodes = AmenityCatalog.codesOf(venue.getAmenityMask());
+            if (!amenityCodes.isEmpty()) {
                 StringBuilder amenities = new StringBuilder();
-                int limit = Math.min(3, venue.getAmenities().size());
+                int limit = Math.min(3, amenityCodes.size());
                 for (int i = 0; i < limit; i++) {
-                    amenities.append(getAmenityDisplayName(venue.getAmenities().get(i)));
+                    amenities.append(getAmenityDisplayName(amenityCodes.get(i)));
                     if (i < limit - 1) amenities.append(" • ");
                 }
                 holder.tvAmenities.setText(amenities.toString());
@@ -138,19 +138,20 @@ public class VenueAdapter extends RecyclerView.Adapter<VenueAdapter.ViewHolder>
         }
     }
 
-    private void openVenueDetails(Venue venue) {
+    private void openVenueDetails(VenueSummary venue) {
         Intent intent = new Intent(context, VenueDetailActivity.class);
         intent.putExtra("venueId", venue.getId());
         context.startActivity(intent);
     }
 
-    private void bookVenue(Venue venue) {
+    private void bookVenue(VenueSummary venue) {
+        // BookingActivity loads the full venue itself
         Intent intent = new Intent(context, BookingActivity.class);
-        intent.putExtra("venue", (Serializable) venue);
+        intent.putExtra("venueId", venue.getId());
         context.startActivity(intent);
     }
 
-    private void showOnMap(Venue venue) {
+    private void showOnMap(VenueSummary venue) {
         // Open Google Maps with venue location
         String uri = "http://maps.google.com/maps?q=" +
                 venue.getLatitude() + "," + venue.getLongitude() +
@@ -159,7 +160,7 @@ public class VenueAdapter extends RecyclerView.Adapter<VenueAdapter.ViewHolder>
         context.startActivity(intent);
     }
 
-    private void addToFavorites(Venue venue) {
+    private void addToFavorites(VenueSummary venue) {
         // Implement add to favorites
         Toast.makeText(context, "Added to favorites", Toast.LENGTH_SHORT).show();
     }
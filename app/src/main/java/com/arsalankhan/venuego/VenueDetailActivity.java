@@ -42,7 +42,7 @@ public class VenueDetailActivity extends AppCompatActivity implements OnMapReady
 
         authService = new AuthService();
         venueService = new VenueService();
-        databaseHelper = new DatabaseHelper(this);
+        databaseHelper = DatabaseHelper.getInstance(this);
 
         if (!authService.isUserLoggedIn()) {
             redirectToLogin();
@@ -110,7 +110,7 @@ public class VenueDetailActivity extends AppCompatActivity implements OnMapReady
             displayVenueDetails();
 
             // Increment view count
-            databaseHelper.incrementVenueViews(venueId);
+            VenueViewCounter.getInstance(this).recordView(venueId);
         } else {
             // Fallback to Firestore
             venueService.getVenueById(venueId, new VenueService.VenueCallback() {
@@ -124,7 +124,7 @@ public class VenueDetailActivity extends AppCompatActivity implements OnMapReady
                     databaseHelper.insertVenue(venue);
 
                     // Increment view count
-                    databaseHelper.incrementVenueViews(venueId);
+                    VenueViewCounter.getInstance(VenueDetailActivity.this).recordView(venueId);
                 }
 
                 @Override
@@ -53,15 +53,23 @@ public class VenueGo extends Application {
         }
     }
 
-    private void initializeServices() {
-        // Initialize database
-        DatabaseHelper databaseHelper = new DatabaseHelper(this);
+    @Override
+    public void onTrimMemory(int level) {
+        super.onTrimMemory(level);
+        // Decoded forecasts are cheap to rebuild from weather_cache
+        WeatherService.clearMemoryCache();
+        // UI_HIDDEN and above: app went to background or memory is tight; persist buffered views
+        if (level >= TRIM_MEMORY_UI_HIDDEN) {
+            VenueViewCounter.getInstance(this).flushAsync();
+        }
+    }
 
-        // Clear old cache
-        databaseHelper.clearOldWeatherCache();
-        databaseHelper.clearOldSearchHistory(30);
+    private void initializeServices() {
+        // Cache and history cleanup runs in the background, after the first frame
+        DatabaseMaintenanceWorker.schedule(this);
 
         // Correct way to schedule sync
         DataSyncService.scheduleDailySync(this);
+        WeatherPrefetchWorker.schedule(this);
     }
 }
\ No newline at end of file
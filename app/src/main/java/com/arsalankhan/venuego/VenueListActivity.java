@@ -8,8 +8,10 @@ import android.view.View;
 import android.widget.Toast;
 
 import androidx.appcompat.app.AlertDialog;
+import androidx.annotation.NonNull;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
 
 import com.arsalankhan.venuego.databinding.ActivityVenueListBinding;
 import com.google.android.gms.location.FusedLocationProviderClient;
@@ -28,21 +30,40 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class VenueListActivity extends AppCompatActivity implements OnMapReadyCallback {
+    // Start fetching the next page when this many loaded rows remain below the viewport
+    private static final int PAGE_PREFETCH_DISTANCE = 5;
+
     private ActivityVenueListBinding binding;
     private AuthService authService;
     private VenueService venueService;
     private FusedLocationProviderClient fusedLocationClient;
     private GoogleMap googleMap;
-    private List<Venue> venues = new ArrayList<>();
+    private List<VenueSummary> venues = new ArrayList<>();
     private VenueAdapter venueAdapter;
     private DatabaseHelper databaseHelper;
-    private Map<Marker, Venue> markerVenueMap = new HashMap<>();
+    private Map<Marker, VenueSummary> markerVenueMap = new HashMap<>();
     private boolean isMapReady = false;
     private String currentView = "list"; // "list" or "map"
     private Location userLocation;
 
+    // Local paging state; pageLoader is null when the list came from Firestore or an intent
+    private PageLoader pageLoader;
+    private VenueSummary lastPageAnchor;
+    private boolean isLoadingPage = false;
+    private boolean hasMorePages = false;
+    // Firestore filters to fall back on when the local search has no results
+    private HashMap<String, Object> remoteFilters;
+    // Page queries run here one at a time; shut down with the activity
+    private final ExecutorService pageExecutor = Executors.newSingleThreadExecutor();
+
+    private interface PageLoader {
+        List<VenueSummary> loadPage(VenueSummary after, int pageSize);
+    }
+
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
@@ -52,7 +73,7 @@ public class VenueListActivity extends AppCompatActivity implements OnMapReadyCa
         authService = new AuthService();
         venueService = new VenueService();
         fusedLocationClient = LocationServices.getFusedLocationProviderClient(this);
-        databaseHelper = new DatabaseHelper(this);
+        databaseHelper = DatabaseHelper.getInstance(this);
 
         if (!authService.isUserLoggedIn()) {
             redirectToLogin();
@@ -89,6 +110,16 @@ public class VenueListActivity extends AppCompatActivity implements OnMapReadyCa
         venueAdapter = new VenueAdapter(venues, this, true);
         binding.recyclerViewVenues.setLayoutManager(new LinearLayoutManager(this));
         binding.recyclerViewVenues.setAdapter(venueAdapter);
+        binding.recyclerViewVenues.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+                LinearLayoutManager layoutManager = (LinearLayoutManager) recyclerView.getLayoutManager();
+                if (dy > 0 && layoutManager != null &&
+                        layoutManager.findLastVisibleItemPosition() >= venues.size() - PAGE_PREFETCH_DISTANCE) {
+                    loadNextPage();
+                }
+            }
+        });
 
         // Setup empty state button
         binding.btnExplore.setOnClickListener(v -> {
@@ -115,7 +146,7 @@ public class VenueListActivity extends AppCompatActivity implements OnMapReadyCa
         googleMap.getUiSettings().setCompassEnabled(true);
 
         googleMap.setOnMarkerClickListener(marker -> {
-            Venue venue = markerVenueMap.get(marker);
+            VenueSummary venue = markerVenueMap.get(marker);
             if (venue != null) {
                 showVenueDetails(venue);
                 return true;
@@ -148,11 +179,20 @@ public class VenueListActivity extends AppCompatActivity implements OnMapReadyCa
     }
 
     private void loadVenues() {
+        // Local filtered search: page through the results instead of receiving them all
+        HashMap<String, Object> filters = (HashMap<String, Object>) getIntent().getSerializableExtra("filters");
+        if (filters != null) {
+            remoteFilters = (HashMap<String, Object>) getIntent().getSerializableExtra("remoteFilters");
+            startPaging((after, pageSize) -> databaseHelper.searchVenueSummariesPage(filters, after, pageSize));
+            return;
+        }
+
         // Check if venues were passed in intent
         ArrayList<Venue> passedVenues = (ArrayList<Venue>) getIntent().getSerializableExtra("venues");
         if (passedVenues != null && !passedVenues.isEmpty()) {
+            pageLoader = null;
             venues.clear();
-            venues.addAll(passedVenues);
+            venues.addAll(VenueSummary.fromVenues(passedVenues));
             updateUI();
             return;
         }
@@ -184,8 +224,9 @@ public class VenueListActivity extends AppCompatActivity implements OnMapReadyCa
                                         @Override
                                         public void onSuccess(List<Venue> venueList) {
                                             binding.progressBar.setVisibility(View.GONE);
+                                            pageLoader = null;
                                             venues.clear();
-                                            venues.addAll(venueList);
+                                            venues.addAll(VenueSummary.fromVenues(venueList));
                                             updateUI();
                                             cacheVenuesLocally(venueList);
                                         }
@@ -217,8 +258,9 @@ public class VenueListActivity extends AppCompatActivity implements OnMapReadyCa
             @Override
             public void onSuccess(List<Venue> venueList) {
                 binding.progressBar.setVisibility(View.GONE);
+                pageLoader = null;
                 venues.clear();
-                venues.addAll(venueList);
+                venues.addAll(VenueSummary.fromVenues(venueList));
                 updateUI();
             }
 
@@ -231,14 +273,89 @@ public class VenueListActivity extends AppCompatActivity implements OnMapReadyCa
     }
 
     private void loadFromLocalDB() {
-        List<Venue> localVenues = databaseHelper.getAllVenues();
-        if (!localVenues.isEmpty()) {
-            venues.clear();
-            venues.addAll(localVenues);
-            updateUI();
-        } else {
-            showEmptyState();
-        }
+        startPaging((after, pageSize) -> databaseHelper.getVenueSummariesPage(after, pageSize));
+    }
+
+    private void startPaging(PageLoader loader) {
+        pageLoader = loader;
+        lastPageAnchor = null;
+        hasMorePages = true;
+        isLoadingPage = false;
+        venues.clear();
+        loadNextPage();
+    }
+
+    private void loadNextPage() {
+        if (pageLoader == null || isLoadingPage || !hasMorePages) return;
+
+        isLoadingPage = true;
+        PageLoader loader = pageLoader;
+        VenueSummary after = lastPageAnchor;
+        boolean firstPage = after == null;
+        if (firstPage) binding.progressBar.setVisibility(View.VISIBLE);
+
+        pageExecutor.execute(() -> {
+            List<VenueSummary> page;
+            try {
+                page = loader.loadPage(after, Constants.PAGE_SIZE_VENUES);
+            } catch (RuntimeException e) {
+                // SQLite errors or a malformed filter map; stop paging rather than spin forever
+                Log.e("VenueListActivity", "Error loading venue page", e);
+                runOnUiThread(() -> {
+                    if (loader != pageLoader || isDestroyed()) return;
+
+                    isLoadingPage = false;
+                    hasMorePages = false;
+                    binding.progressBar.setVisibility(View.GONE);
+                    Toast.makeText(this, "Error loading venues", Toast.LENGTH_SHORT).show();
+                    updateUI();
+                });
+                return;
+            }
+            runOnUiThread(() -> {
+                // A newer startPaging() replaced this loader, or the activity is gone
+                if (loader != pageLoader || isDestroyed()) return;
+
+                isLoadingPage = false;
+                if (firstPage && page.isEmpty() && remoteFilters != null) {
+                    searchRemoteVenues(remoteFilters);
+                    return;
+                }
+                binding.progressBar.setVisibility(View.GONE);
+                hasMorePages = page.size() == Constants.PAGE_SIZE_VENUES;
+                if (!page.isEmpty()) {
+                    lastPageAnchor = page.get(page.size() - 1);
+                    venues.addAll(page);
+                }
+                updateUI();
+            });
+        });
+    }
+
+    // Nothing cached locally matches the search; ask Firestore and cache what it returns
+    private void searchRemoteVenues(Map<String, Object> filters) {
+        pageLoader = null;
+        binding.progressBar.setVisibility(View.VISIBLE);
+
+        venueService.searchVenues(filters, new VenueService.VenueListCallback() {
+            @Override
+            public void onSuccess(List<Venue> venueList) {
+                if (isDestroyed()) return;
+                binding.progressBar.setVisibility(View.GONE);
+                venues.clear();
+                venues.addAll(VenueSummary.fromVenues(venueList));
+                updateUI();
+                cacheVenuesLocally(venueList);
+            }
+
+            @Override
+            public void onFailure(String error) {
+                if (isDestroyed()) return;
+                binding.progressBar.setVisibility(View.GONE);
+                Toast.makeText(VenueListActivity.this, "Search failed: " + error, Toast.LENGTH_SHORT).show();
+                updateUI();
+            }
+        });
     }
 
     private void updateUI() {
@@ -262,7 +379,7 @@ public class VenueListActivity extends AppCompatActivity implements OnMapReadyCa
         googleMap.clear();
         markerVenueMap.clear();
 
-        for (Venue venue : venues) {
+        for (VenueSummary venue : venues) {
             LatLng position = new LatLng(venue.getLatitude(), venue.getLongitude());
 
             Marker marker = googleMap.addMarker(new MarkerOptions()
@@ -304,7 +421,7 @@ public class VenueListActivity extends AppCompatActivity implements OnMapReadyCa
         if (venues.isEmpty() || googleMap == null) return;
 
         LatLngBounds.Builder builder = new LatLngBounds.Builder();
-        for (Venue venue : venues) {
+        for (VenueSummary venue : venues) {
             builder.include(new LatLng(venue.getLatitude(), venue.getLongitude()));
         }
 
@@ -313,14 +430,14 @@ public class VenueListActivity extends AppCompatActivity implements OnMapReadyCa
             googleMap.animateCamera(CameraUpdateFactory.newLatLngBounds(bounds, 100));
         } catch (IllegalStateException e) {
             if (!venues.isEmpty()) {
-                Venue firstVenue = venues.get(0);
+                VenueSummary firstVenue = venues.get(0);
                 googleMap.animateCamera(CameraUpdateFactory.newLatLngZoom(
                         new LatLng(firstVenue.getLatitude(), firstVenue.getLongitude()), 12));
             }
         }
     }
 
-    private void showVenueDetails(Venue venue) {
+    private void showVenueDetails(VenueSummary venue) {
         Intent intent = new Intent(this, VenueDetailActivity.class);
         intent.putExtra("venueId", venue.getId());
         startActivity(intent);
@@ -414,11 +531,7 @@ public class VenueListActivity extends AppCompatActivity implements OnMapReadyCa
     }
 
     private void cacheVenuesLocally(List<Venue> venueList) {
-        new Thread(() -> {
-            for (Venue venue : venueList) {
-                databaseHelper.insertVenue(venue);
-            }
-        }).start();
+        new Thread(() -> databaseHelper.upsertVenues(venueList)).start();
     }
 
     private void redirectToLogin() {
@@ -428,6 +541,14 @@ public class VenueListActivity extends AppCompatActivity implements OnMapReadyCa
         finish();
     }
 
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        // Pages still queued or loading are dropped; see the check in loadNextPage
+        pageLoader = null;
+        pageExecutor.shutdownNow();
+    }
+
     @Override
     public void onBackPressed() {
         super.onBackPressed();
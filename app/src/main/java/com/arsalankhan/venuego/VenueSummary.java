@@ -0,0 +1,77 @@
+package com.arsalankhan.venuego;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read-only slice of a Venue for list and map screens: no description, contact details or
+ * JSON-backed lists. Amenities are carried as the AmenityCatalog mask and imagery as the
+ * single cover image. Load the full Venue by id when the user opens a venue.
+ */
+public class VenueSummary implements Serializable {
+    private String id;
+    private String name;
+    private String address;
+    private String city;
+    private String category;
+    private String type;
+    private int capacity;
+    private double priceRange;
+    private double rating;
+    private int reviewCount;
+    private double latitude;
+    private double longitude;
+    private String coverImage;
+    private long amenityMask;
+
+    public VenueSummary(String id, String name, String address, String city, String category, String type,
+                        int capacity, double priceRange, double rating, int reviewCount,
+                        double latitude, double longitude, String coverImage, long amenityMask) {
+        this.id = id;
+        this.name = name;
+        this.address = address;
+        this.city = city;
+        this.category = category;
+        this.type = type;
+        this.capacity = capacity;
+        this.priceRange = priceRange;
+        this.rating = rating;
+        this.reviewCount = reviewCount;
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.coverImage = coverImage;
+        this.amenityMask = amenityMask;
+    }
+
+    // For venues that arrive as full objects (Firestore, intents)
+    public static VenueSummary from(Venue venue) {
+        return new VenueSummary(venue.getId(), venue.getName(), venue.getAddress(), venue.getCity(),
+                venue.getCategory(), venue.getType(), venue.getCapacity(), venue.getPriceRange(),
+                venue.getRating(), venue.getReviewCount(), venue.getLatitude(), venue.getLongitude(),
+                venue.getFirstImageUrl(), venue.getAmenityMask());
+    }
+
+    public static List<VenueSummary> fromVenues(List<Venue> venues) {
+        List<VenueSummary> summaries = new ArrayList<>(venues.size());
+        for (Venue venue : venues) {
+            summaries.add(from(venue));
+        }
+        return summaries;
+    }
+
+    public String getId() { return id; }
+    public String getName() { return name; }
+    public String getAddress() { return address; }
+    public String getCity() { return city; }
+    public String getCategory() { return category; }
+    public String getType() { return type; }
+    public int getCapacity() { return capacity; }
+    public double getPriceRange() { return priceRange; }
+    public double getRating() { return rating; }
+    public int getReviewCount() { return reviewCount; }
+    public double getLatitude() { return latitude; }
+    public double getLongitude() { return longitude; }
+    public String getCoverImage() { return coverImage; }
+    public long getAmenityMask() { return amenityMask; }
+}
@@ -0,0 +1,110 @@
+package com.arsalankhan.venuego;
+
+import android.content.Context;
+import android.util.Log;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Write-behind buffer for venue views. Views are counted in memory and written to SQLite in
+ * one batched transaction every FLUSH_INTERVAL_SECONDS, as soon as MAX_PENDING_VIEWS are
+ * buffered, or when the app is backgrounded or trimmed (see VenueGo.onTrimMemory).
+ *
+ * A process kill loses every view not yet committed: the buffer plus any batch being written.
+ * While writes succeed that stays around MAX_PENDING_VIEWS. If the database is slow or
+ * failing, the buffer keeps growing until it holds MAX_BUFFERED_VIEWS. After that, new views
+ * are dropped rather than held, and a failed batch is put back on top of the buffer. So a
+ * kill loses at most 2 * MAX_BUFFERED_VIEWS views.
+ */
+public final class VenueViewCounter {
+    private static final int FLUSH_INTERVAL_SECONDS = 30;
+    private static final int MAX_PENDING_VIEWS = 50;
+    private static final int MAX_BUFFERED_VIEWS = 500;
+
+    private static volatile VenueViewCounter instance;
+
+    private final DatabaseHelper databaseHelper;
+    // ConcurrentHashMap locks per bin, so concurrent views of different venues don't contend
+    private final ConcurrentHashMap<String, Long> pendingViews = new ConcurrentHashMap<>();
+    private final AtomicInteger pendingTotal = new AtomicInteger();
+    private final AtomicInteger droppedViews = new AtomicInteger();
+    private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "VenueViewCounter");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private VenueViewCounter(Context context) {
+        databaseHelper = DatabaseHelper.getInstance(context);
+        flusher.scheduleWithFixedDelay(this::flush, FLUSH_INTERVAL_SECONDS, FLUSH_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    public static VenueViewCounter getInstance(Context context) {
+        if (instance == null) {
+            synchronized (VenueViewCounter.class) {
+                if (instance == null) {
+                    instance = new VenueViewCounter(context.getApplicationContext());
+                }
+            }
+        }
+        return instance;
+    }
+
+    public void recordView(String venueId) {
+        if (venueId == null) return;
+
+        int pending = pendingTotal.incrementAndGet();
+        if (pending > MAX_BUFFERED_VIEWS) {
+            // Flushes are failing or far behind; don't let the buffer grow without bound
+            pendingTotal.decrementAndGet();
+            droppedViews.incrementAndGet();
+            return;
+        }
+        pendingViews.merge(venueId, 1L, Long::sum);
+        if (pending >= MAX_PENDING_VIEWS) {
+            flushAsync();
+        }
+    }
+
+    public void flushAsync() {
+        flusher.execute(this::flush);
+    }
+
+    // Runs on the flusher thread only, so flushes never overlap
+    private void flush() {
+        if (pendingViews.isEmpty()) return;
+
+        // remove() takes each count atomically; views recorded meanwhile start a fresh entry
+        Map<String, Long> batch = new HashMap<>();
+        for (String venueId : pendingViews.keySet()) {
+            Long views = pendingViews.remove(venueId);
+            if (views != null) {
+                batch.put(venueId, views);
+                pendingTotal.addAndGet((int) -views);
+            }
+        }
+        if (batch.isEmpty()) return;
+
+        try {
+            databaseHelper.addVenueViews(batch);
+            Log.d("VenueViewCounter", "Flushed views for " + batch.size() + " venues");
+            int dropped = droppedViews.getAndSet(0);
+            if (dropped > 0) {
+                Log.w("VenueViewCounter", "Dropped " + dropped + " views while the buffer was full");
+            }
+        } catch (Exception e) {
+            // Put the counts back so the next flush retries them
+            for (Map.Entry<String, Long> entry : batch.entrySet()) {
+                pendingViews.merge(entry.getKey(), entry.getValue(), Long::sum);
+                pendingTotal.addAndGet(entry.getValue().intValue());
+            }
+            Log.e("VenueViewCounter", "Error flushing venue views: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.arsalankhan.venuego;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.work.Constraints;
+import androidx.work.ExistingPeriodicWorkPolicy;
+import androidx.work.NetworkType;
+import androidx.work.PeriodicWorkRequest;
+import androidx.work.WorkManager;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps forecasts warm for upcoming local bookings. Bookings inside the forecast window are
+ * grouped by weather cell and each cell is refreshed with a single /forecast call, which fills
+ * the day cache for every booked date in that cell. Runs only on unmetered networks.
+ */
+public class WeatherPrefetchWorker extends Worker {
+    private static final String WORK_NAME = "weather_prefetch";
+    private static final int INTERVAL_HOURS = 6;
+    private static final int FORECAST_DAYS = 5;
+
+    public WeatherPrefetchWorker(@NonNull Context context, @NonNull WorkerParameters params) {
+        super(context, params);
+    }
+
+    public static void schedule(Context context) {
+        Constraints constraints = new Constraints.Builder()
+                .setRequiredNetworkType(NetworkType.UNMETERED)
+                .build();
+
+        PeriodicWorkRequest request = new PeriodicWorkRequest.Builder(
+                WeatherPrefetchWorker.class, INTERVAL_HOURS, TimeUnit.HOURS)
+                .setConstraints(constraints)
+                .build();
+
+        WorkManager.getInstance(context).enqueueUniquePeriodicWork(
+                WORK_NAME, ExistingPeriodicWorkPolicy.KEEP, request);
+    }
+
+    @NonNull
+    @Override
+    public Result doWork() {
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTimeInMillis(DatabaseHelper.startOfDay(System.currentTimeMillis()));
+        long from = calendar.getTimeInMillis();
+        calendar.add(Calendar.DAY_OF_MONTH, FORECAST_DAYS + 1);
+        long to = calendar.getTimeInMillis();
+
+        List<DatabaseHelper.BookingLocation> locations =
+                DatabaseHelper.getInstance(getApplicationContext()).getUpcomingBookingLocations(from, to);
+        if (locations.isEmpty()) {
+            return Result.success();
+        }
+
+        // One request per weather cell, covering every booked date in it
+        Map<Long, List<DatabaseHelper.BookingLocation>> byCell = new LinkedHashMap<>();
+        for (DatabaseHelper.BookingLocation location : locations) {
+            long cell = GeoGrid.weatherCellOf(location.latitude, location.longitude);
+            List<DatabaseHelper.BookingLocation> inCell = byCell.get(cell);
+            if (inCell == null) {
+                inCell = new ArrayList<>();
+                byCell.put(cell, inCell);
+            }
+            inCell.add(location);
+        }
+
+        WeatherService weatherService = new WeatherService(getApplicationContext());
+        boolean retry = false;
+        for (List<DatabaseHelper.BookingLocation> inCell : byCell.values()) {
+            List<Date> dates = new ArrayList<>();
+            for (DatabaseHelper.BookingLocation location : inCell) {
+                dates.add(new Date(location.eventDate));
+            }
+
+            DatabaseHelper.BookingLocation first = inCell.get(0);
+            try {
+                weatherService.prefetchForecast(first.latitude, first.longitude, dates);
+            } catch (IOException e) {
+                Log.w("WeatherPrefetchWorker", "Prefetch failed: " + e.getMessage());
+                retry = true;
+            } catch (Exception e) {
+                Log.e("WeatherPrefetchWorker", "Error prefetching weather: " + e.getMessage());
+            }
+        }
+
+        Log.d("WeatherPrefetchWorker", "Prefetched weather for " + byCell.size() + " cells");
+        return retry ? Result.retry() : Result.success();
+    }
+}
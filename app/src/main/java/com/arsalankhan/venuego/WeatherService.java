@@ -3,15 +3,26 @@ package com.arsalankhan.venuego;
 
 import android.content.Context;
 import android.util.Log;
+import android.util.LruCache;
 
 import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
 
 import java.io.IOException;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Calendar;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import okhttp3.Call;
 import okhttp3.Callback;
@@ -27,9 +38,41 @@ public class WeatherService {
     private Gson gson;
     private SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd", Locale.getDefault());
 
+    // Network fetches in progress, keyed by weather cell and date. Static because callers each
+    // create their own WeatherService; a second caller for the same key waits on the first fetch
+    private static final ConcurrentHashMap<String, CompletableFuture<WeatherForecast>> inFlight =
+            new ConcurrentHashMap<>();
+    private static final AtomicLong networkRequests = new AtomicLong();
+    private static final AtomicLong coalescedRequests = new AtomicLong();
+
+    // Decoded forecasts in front of weather_cache, keyed like inFlight. Entries keep the
+    // table row's expiry; the whole tier is dropped on memory pressure (VenueGo.onTrimMemory)
+    private static final int MEMORY_CACHE_SIZE = 64;
+    private static final AtomicLong memoryHits = new AtomicLong();
+    private static final AtomicLong memoryMisses = new AtomicLong();
+    private static final AtomicLong memoryEvictions = new AtomicLong();
+    private static final LruCache<String, MemoryEntry> memoryCache = new LruCache<String, MemoryEntry>(MEMORY_CACHE_SIZE) {
+        @Override
+        protected void entryRemoved(boolean evicted, String key, MemoryEntry oldValue, MemoryEntry newValue) {
+            if (evicted) {
+                memoryEvictions.incrementAndGet();
+            }
+        }
+    };
+
+    private static class MemoryEntry {
+        final WeatherForecast forecast;
+        final long expiresAt;
+
+        MemoryEntry(WeatherForecast forecast, long expiresAt) {
+            this.forecast = forecast;
+            this.expiresAt = expiresAt;
+        }
+    }
+
     public WeatherService(Context context) {
         this.client = new OkHttpClient();
-        this.databaseHelper = new DatabaseHelper(context);
+        this.databaseHelper = DatabaseHelper.getInstance(context);
         this.gson = new Gson();
     }
 
@@ -39,13 +82,32 @@ public class WeatherService {
     }
 
     public void getWeatherForecast(double lat, double lon, Date date, WeatherCallback callback) {
+        // No forecast exists that far out; typical weather for the month is the best answer
+        if (!isWithin5Days(date)) {
+            callback.onSuccess(Climatology.forecastFor(lat, lon, date));
+            return;
+        }
+
         String dateString = dateFormat.format(date);
+        String key = GeoGrid.weatherCellOf(lat, lon) + ":" + dateString;
+
+        // Check memory, then the database cache
+        MemoryEntry entry = memoryCache.get(key);
+        if (entry != null && entry.expiresAt > System.currentTimeMillis()) {
+            memoryHits.incrementAndGet();
+            callback.onSuccess(entry.forecast);
+            return;
+        }
+        if (entry != null) {
+            memoryCache.remove(key);
+        }
+        memoryMisses.incrementAndGet();
 
-        // Check cache first
-        String cachedData = databaseHelper.getCachedWeather(lat, lon, dateString);
+        DatabaseHelper.CachedWeather cachedData = databaseHelper.getCachedWeather(lat, lon, dateString);
         if (cachedData != null) {
             try {
-                WeatherForecast forecast = gson.fromJson(cachedData, WeatherForecast.class);
+                WeatherForecast forecast = gson.fromJson(cachedData.data, WeatherForecast.class);
+                memoryCache.put(key, new MemoryEntry(forecast, cachedData.expiresAt));
                 callback.onSuccess(forecast);
                 return;
             } catch (Exception e) {
@@ -53,22 +115,87 @@ public class WeatherService {
             }
         }
 
-        // If not cached or expired, fetch from API
-        fetchFromAPI(lat, lon, date, dateString, callback);
+        // A forecast series fetched earlier for this cell may already cover the date
+        long[] day = dayBounds(date);
+        WeatherForecast fromSlots = forecastForDay(databaseHelper.getForecastSlots(lat, lon, day[0], day[1]));
+        if (fromSlots != null) {
+            long expiresAt = databaseHelper.cacheWeather(lat, lon, dateString, gson.toJson(fromSlots),
+                    Constants.CACHE_DURATION_WEATHER);
+            memoryCache.put(key, new MemoryEntry(fromSlots, expiresAt));
+            callback.onSuccess(fromSlots);
+            return;
+        }
+
+        // If not cached or expired, fetch from API, unless the same fetch is already running
+        CompletableFuture<WeatherForecast> pending = new CompletableFuture<>();
+        CompletableFuture<WeatherForecast> existing = inFlight.putIfAbsent(key, pending);
+        if (existing != null) {
+            coalescedRequests.incrementAndGet();
+            Log.d("WeatherService", "Joined in-flight weather request for " + key);
+            deliver(existing, callback);
+            return;
+        }
+
+        networkRequests.incrementAndGet();
+        deliver(pending, callback);
+        fetchFromAPI(lat, lon, date, dateString, key, pending);
     }
 
-    private void fetchFromAPI(double lat, double lon, Date date, String dateString, WeatherCallback callback) {
-        // Use forecast API for future dates
-        String url;
-        if (isWithin5Days(date)) {
-            url = BASE_URL + "/forecast?lat=" + lat + "&lon=" + lon +
-                    "&appid=" + OPEN_WEATHER_API_KEY + "&units=metric&cnt=40";
-        } else {
-            // For dates beyond 5 days, use historical data (requires premium subscription)
-            // Fallback to current weather
-            url = BASE_URL + "/weather?lat=" + lat + "&lon=" + lon +
-                    "&appid=" + OPEN_WEATHER_API_KEY + "&units=metric";
+    private void deliver(CompletableFuture<WeatherForecast> future, WeatherCallback callback) {
+        future.whenComplete((forecast, error) -> {
+            if (error != null) {
+                callback.onFailure(error.getMessage());
+            } else {
+                callback.onSuccess(forecast);
+            }
+        });
+    }
+
+    // Unregister before completing, so callers arriving afterwards start a fresh fetch
+    private void complete(String key, CompletableFuture<WeatherForecast> pending, WeatherForecast forecast) {
+        inFlight.remove(key, pending);
+        pending.complete(forecast);
+    }
+
+    private void fail(String key, CompletableFuture<WeatherForecast> pending, String error) {
+        inFlight.remove(key, pending);
+        pending.completeExceptionally(new Exception(error));
+    }
+
+    public static void clearMemoryCache() {
+        // remove() rather than evictAll(), which would count every entry as an eviction
+        for (String key : memoryCache.snapshot().keySet()) {
+            memoryCache.remove(key);
         }
+    }
+
+    public static long getMemoryHitCount() {
+        return memoryHits.get();
+    }
+
+    public static long getMemoryMissCount() {
+        return memoryMisses.get();
+    }
+
+    // Entries pushed out by the size bound (not expiries or clearMemoryCache)
+    public static long getMemoryEvictionCount() {
+        return memoryEvictions.get();
+    }
+
+    public static long getNetworkRequestCount() {
+        return networkRequests.get();
+    }
+
+    // Requests answered by joining a fetch another caller had already started
+    public static long getCoalescedRequestCount() {
+        return coalescedRequests.get();
+    }
+
+    private void fetchFromAPI(double lat, double lon, Date date, String dateString, String key,
+                              CompletableFuture<WeatherForecast> pending) {
+        // Dates past the forecast window are answered by Climatology and never get here
+        String url = BASE_URL + "/forecast?lat=" + lat + "&lon=" + lon +
+                "&appid=" + OPEN_WEATHER_API_KEY + "&units=metric&cnt=40";
 
         Request request = new Request.Builder()
                 .url(url)
@@ -77,7 +204,7 @@ public class WeatherService {
         client.newCall(request).enqueue(new Callback() {
             @Override
             public void onFailure(Call call, IOException e) {
-                callback.onFailure(e.getMessage());
+                fail(key, pending, e.getMessage());
             }
 
             @Override
@@ -85,82 +212,184 @@ public class WeatherService {
                 if (response.isSuccessful()) {
                     try {
                         String jsonData = response.body().string();
-                        WeatherForecast forecast = parseWeatherData(jsonData, dateString);
+                        WeatherForecast forecast = parseWeatherData(lat, lon, jsonData, date);
 
                         // Cache the result
-                        databaseHelper.cacheWeather(lat, lon, dateString,
-                                gson.toJson(forecast), 24);
+                        long expiresAt = databaseHelper.cacheWeather(lat, lon, dateString,
+                                gson.toJson(forecast), Constants.CACHE_DURATION_WEATHER);
+                        memoryCache.put(key, new MemoryEntry(forecast, expiresAt));
 
-                        callback.onSuccess(forecast);
+                        complete(key, pending, forecast);
                     } catch (Exception e) {
-                        callback.onFailure(e.getMessage());
+                        fail(key, pending, e.getMessage());
                     }
                 } else {
-                    callback.onFailure("HTTP Error: " + response.code());
+                    fail(key, pending, "HTTP Error: " + response.code());
                 }
             }
         });
     }
 
+    /**
+     * Blocking refresh for background work: fetches the forecast series for the cell containing
+     * (lat, lon) once and writes a fresh day entry for each of the given dates.
+     */
+    public void prefetchForecast(double lat, double lon, List<Date> dates) throws Exception {
+        String url = BASE_URL + "/forecast?lat=" + lat + "&lon=" + lon +
+                "&appid=" + OPEN_WEATHER_API_KEY + "&units=metric&cnt=40";
+
+        Request request = new Request.Builder()
+                .url(url)
+                .build();
+
+        String jsonData;
+        try (Response response = client.newCall(request).execute()) {
+            if (!response.isSuccessful()) {
+                throw new IOException("HTTP Error: " + response.code());
+            }
+            jsonData = response.body().string();
+        }
+        networkRequests.incrementAndGet();
+
+        List<ForecastSlot> slots = parseForecastSlots(JsonParser.parseString(jsonData).getAsJsonObject());
+        databaseHelper.saveForecastSlots(lat, lon, slots, Constants.CACHE_DURATION_WEATHER);
+
+        for (Date date : dates) {
+            String dateString = dateFormat.format(date);
+            WeatherForecast forecast = forecastForDate(slots, date);
+            long expiresAt = databaseHelper.cacheWeather(lat, lon, dateString, gson.toJson(forecast),
+                    Constants.CACHE_DURATION_WEATHER);
+            memoryCache.put(GeoGrid.weatherCellOf(lat, lon) + ":" + dateString, new MemoryEntry(forecast, expiresAt));
+        }
+    }
+
     private boolean isWithin5Days(Date date) {
         long diff = date.getTime() - System.currentTimeMillis();
         return diff <= 5 * 24 * 60 * 60 * 1000; // 5 days in milliseconds
     }
 
-    private WeatherForecast parseWeatherData(String jsonData, String targetDate) throws Exception {
+    // Start and end (exclusive) of the local calendar day containing date
+    private long[] dayBounds(Date date) {
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTime(date);
+        calendar.set(Calendar.HOUR_OF_DAY, 0);
+        calendar.set(Calendar.MINUTE, 0);
+        calendar.set(Calendar.SECOND, 0);
+        calendar.set(Calendar.MILLISECOND, 0);
+        long start = calendar.getTimeInMillis();
+        calendar.add(Calendar.DAY_OF_MONTH, 1);
+        return new long[]{start, calendar.getTimeInMillis()};
+    }
+
+    private WeatherForecast parseWeatherData(double lat, double lon, String jsonData, Date targetDate) throws Exception {
         JsonObject json = JsonParser.parseString(jsonData).getAsJsonObject();
 
-        if (json.has("list")) {
-            // Forecast data - find closest to target date
-            return parseForecastData(json, targetDate);
-        } else {
-            // Current weather data
-            return parseCurrentWeatherData(json);
-        }
+        // Keep the whole series so later dates in the window need no further calls
+        List<ForecastSlot> slots = parseForecastSlots(json);
+        databaseHelper.saveForecastSlots(lat, lon, slots, Constants.CACHE_DURATION_WEATHER);
+        return forecastForDate(slots, targetDate);
     }
 
-    private WeatherForecast parseForecastData(JsonObject json, String targetDate) throws Exception {
-        // Find forecast entry closest to target date
-        // For simplicity, using first entry
-        JsonObject forecast = json.getAsJsonArray("list").get(0).getAsJsonObject();
+    private List<ForecastSlot> parseForecastSlots(JsonObject json) {
+        JsonArray list = json.getAsJsonArray("list");
+        List<ForecastSlot> slots = new ArrayList<>(list.size());
 
-        String condition = forecast.getAsJsonArray("weather")
-                .get(0).getAsJsonObject()
-                .get("main").getAsString();
+        for (JsonElement element : list) {
+            JsonObject forecast = element.getAsJsonObject();
 
-        double temperature = forecast.getAsJsonObject("main")
-                .get("temp").getAsDouble();
+            String condition = forecast.getAsJsonArray("weather")
+                    .get(0).getAsJsonObject()
+                    .get("main").getAsString();
 
-        int humidity = forecast.getAsJsonObject("main")
-                .get("humidity").getAsInt();
+            JsonObject main = forecast.getAsJsonObject("main");
 
-        double windSpeed = forecast.getAsJsonObject("wind")
-                .get("speed").getAsDouble();
+            double precipitation = 0;
+            if (forecast.has("rain") && forecast.getAsJsonObject("rain").has("3h")) {
+                precipitation = forecast.getAsJsonObject("rain")
+                        .get("3h").getAsDouble();
+            }
 
-        double precipitation = 0;
-        if (forecast.has("rain")) {
-            precipitation = forecast.getAsJsonObject("rain")
-                    .get("3h").getAsDouble();
+            slots.add(new ForecastSlot(
+                    forecast.get("dt").getAsLong() * 1000,
+                    condition,
+                    main.get("temp").getAsDouble(),
+                    main.get("humidity").getAsInt(),
+                    forecast.getAsJsonObject("wind").get("speed").getAsDouble(),
+                    precipitation));
         }
-
-        return new WeatherForecast(condition, temperature, humidity, windSpeed, precipitation);
+        return slots;
     }
 
-    private WeatherForecast parseCurrentWeatherData(JsonObject json) throws Exception {
-        String condition = json.getAsJsonArray("weather")
-                .get(0).getAsJsonObject()
-                .get("main").getAsString();
+    // Day summary from the slots on the target date, or the slot nearest its midday if none fall on it
+    private WeatherForecast forecastForDate(List<ForecastSlot> slots, Date targetDate) throws Exception {
+        long[] day = dayBounds(targetDate);
+        List<ForecastSlot> onDay = new ArrayList<>();
+        for (ForecastSlot slot : slots) {
+            if (slot.getTime() >= day[0] && slot.getTime() < day[1]) {
+                onDay.add(slot);
+            }
+        }
+        if (!onDay.isEmpty()) {
+            return forecastForDay(onDay);
+        }
 
-        double temperature = json.getAsJsonObject("main")
-                .get("temp").getAsDouble();
+        if (slots.isEmpty()) {
+            throw new Exception("Empty forecast");
+        }
+        long midday = (day[0] + day[1]) / 2;
+        ForecastSlot nearest = slots.get(0);
+        for (ForecastSlot slot : slots) {
+            if (Math.abs(slot.getTime() - midday) < Math.abs(nearest.getTime() - midday)) {
+                nearest = slot;
+            }
+        }
+        return nearest.toForecast();
+    }
 
-        int humidity = json.getAsJsonObject("main")
-                .get("humidity").getAsInt();
+    /**
+     * Folds one day's slots into a single forecast: the peak temperature and wind, mean
+     * humidity, total rain, and the most common condition (any rain wins, so isRainy()
+     * sees a wet afternoon). Returns null for no slots.
+     */
+    private WeatherForecast forecastForDay(List<ForecastSlot> slots) {
+        if (slots.isEmpty()) return null;
+
+        double maxTemperature = -Double.MAX_VALUE;
+        double maxWindSpeed = 0;
+        double totalPrecipitation = 0;
+        int humiditySum = 0;
+        String rainCondition = null;
+        Map<String, Integer> conditionCounts = new HashMap<>();
+
+        for (ForecastSlot slot : slots) {
+            maxTemperature = Math.max(maxTemperature, slot.getTemperature());
+            maxWindSpeed = Math.max(maxWindSpeed, slot.getWindSpeed());
+            totalPrecipitation += slot.getPrecipitation();
+            humiditySum += slot.getHumidity();
+
+            String condition = slot.getCondition();
+            if (condition == null) continue;
+            Integer count = conditionCounts.get(condition);
+            conditionCounts.put(condition, count == null ? 1 : count + 1);
+            String lower = condition.toLowerCase(Locale.US);
+            if (rainCondition == null && (lower.contains("rain") || lower.contains("drizzle") || lower.contains("thunder"))) {
+                rainCondition = condition;
+            }
+        }
 
-        double windSpeed = json.getAsJsonObject("wind")
-                .get("speed").getAsDouble();
+        String condition = rainCondition;
+        if (condition == null) {
+            int best = 0;
+            for (Map.Entry<String, Integer> entry : conditionCounts.entrySet()) {
+                if (entry.getValue() > best) {
+                    best = entry.getValue();
+                    condition = entry.getKey();
+                }
+            }
+        }
 
-        return new WeatherForecast(condition, temperature, humidity, windSpeed, 0);
+        return new WeatherForecast(condition != null ? condition : "Clear", maxTemperature,
+                humiditySum / slots.size(), maxWindSpeed, totalPrecipitation);
     }
 
     // Weather impact analysis
@@ -202,6 +431,11 @@ public class WeatherService {
             }
         }
 
+        if (forecast.isClimatological()) {
+            impact.setRiskDetails("Typical for the month: " + impact.getRiskDetails() +
+                    " (" + Math.round(forecast.getRainProbability() * 100) + "% of days see rain)");
+        }
+
         return impact;
     }
 }
@@ -215,6 +449,9 @@ class WeatherForecast {
     private double precipitation;
     private String icon;
     private long timestamp;
+    private double rainProbability;
+    // True when taken from monthly climate normals rather than a real forecast
+    private boolean climatological;
 
     public WeatherForecast(String condition, double temperature, int humidity,
                            double windSpeed, double precipitation) {
@@ -226,6 +463,14 @@ class WeatherForecast {
         this.timestamp = System.currentTimeMillis();
     }
 
+    public WeatherForecast(String condition, double temperature, int humidity,
+                           double windSpeed, double precipitation,
+                           double rainProbability, boolean climatological) {
+        this(condition, temperature, humidity, windSpeed, precipitation);
+        this.rainProbability = rainProbability;
+        this.climatological = climatological;
+    }
+
     // Getters
     public String getCondition() { return condition; }
     public double getTemperature() { return temperature; }
@@ -233,6 +478,8 @@ class WeatherForecast {
     public double getWindSpeed() { return windSpeed; }
     public double getPrecipitation() { return precipitation; }
     public long getTimestamp() { return timestamp; }
+    public double getRainProbability() { return rainProbability; }
+    public boolean isClimatological() { return climatological; }
 
     // Weather condition checks
     public boolean isRainy() {
@@ -273,6 +520,39 @@ class WeatherForecast {
     }
 }
 
+// One 3-hourly entry of the OpenWeather /forecast series; time is epoch millis
+class ForecastSlot {
+    private long time;
+    private String condition;
+    private double temperature;
+    private int humidity;
+    private double windSpeed;
+    private double precipitation;
+
+    public ForecastSlot(long time, String condition, double temperature, int humidity,
+                        double windSpeed, double precipitation) {
+        this.time = time;
+        this.condition = condition;
+        this.temperature = temperature;
+        this.humidity = humidity;
+        this.windSpeed = windSpeed;
+        this.precipitation = precipitation;
+    }
+
+    public WeatherForecast toForecast() {
+        return new WeatherForecast(condition != null ? condition : "Clear", temperature, humidity,
+                windSpeed, precipitation);
+    }
+
+    // Getters
+    public long getTime() { return time; }
+    public String getCondition() { return condition; }
+    public double getTemperature() { return temperature; }
+    public int getHumidity() { return humidity; }
+    public double getWindSpeed() { return windSpeed; }
+    public double getPrecipitation() { return precipitation; }
+}
+
 // Weather Impact Analysis
 class WeatherImpact {
     private String recommendation;
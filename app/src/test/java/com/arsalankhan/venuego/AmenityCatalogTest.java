@@ -0,0 +1,57 @@
+package com.arsalankhan.venuego;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class AmenityCatalogTest {
+
+    @Test
+    public void maskOf_setsOneBitPerCodeByCataloguePosition() {
+        assertEquals(1L, AmenityCatalog.maskOf(Collections.singletonList("parking")));
+        assertEquals((1L << 1) | (1L << 2), AmenityCatalog.maskOf(Arrays.asList("ac", "wifi")));
+        assertEquals(1L << 11, AmenityCatalog.maskOf(Collections.singletonList("projector")));
+    }
+
+    @Test
+    public void maskOf_ignoresUnknownCodesDuplicatesAndNull() {
+        assertEquals(0L, AmenityCatalog.maskOf(null));
+        assertEquals(0L, AmenityCatalog.maskOf(Arrays.asList("helipad", null)));
+        assertEquals(AmenityCatalog.maskOf(Collections.singletonList("bar")),
+                AmenityCatalog.maskOf(Arrays.asList("bar", "bar", "helipad")));
+    }
+
+    @Test
+    public void bitOf_unknownCodeIsMinusOne() {
+        assertEquals(0, AmenityCatalog.bitOf("parking"));
+        assertEquals(-1, AmenityCatalog.bitOf("Parking"));
+        assertEquals(-1, AmenityCatalog.bitOf(null));
+    }
+
+    @Test
+    public void codesOf_roundTripsMaskOf() {
+        assertEquals(AmenityCatalog.CODES, AmenityCatalog.codesOf(AmenityCatalog.maskOf(AmenityCatalog.CODES)));
+        assertEquals(new HashSet<>(Arrays.asList("stage", "catering", "parking", "ac")),
+                new HashSet<>(AmenityCatalog.codesOf(AmenityCatalog.WEDDING_MASK)));
+    }
+
+    @Test
+    public void containsAll_requiresEveryRequiredBit() {
+        long venue = AmenityCatalog.maskOf(Arrays.asList("wifi", "sound_system", "ac", "projector", "bar"));
+        assertTrue(AmenityCatalog.containsAll(venue, AmenityCatalog.CORPORATE_MASK));
+        assertFalse(AmenityCatalog.containsAll(venue, AmenityCatalog.WEDDING_MASK));
+        assertTrue(AmenityCatalog.containsAll(venue, 0));
+    }
+
+    @Test
+    public void catalogueFitsInALong() {
+        assertTrue(AmenityCatalog.CODES.size() <= Long.SIZE);
+        assertEquals(AmenityCatalog.CODES.size(), new HashSet<>(AmenityCatalog.CODES).size());
+    }
+}
@@ -0,0 +1,50 @@
+package com.arsalankhan.venuego;
+
+import org.junit.Test;
+
+import java.util.Calendar;
+import java.util.Date;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ClimatologyTest {
+
+    @Test
+    public void forecastFor_monsoonInMumbaiIsRain() {
+        WeatherForecast forecast = Climatology.forecastFor(19.0760, 72.8777, date(Calendar.JULY));
+        assertEquals("Rain", forecast.getCondition());
+        assertEquals(0.85, forecast.getRainProbability(), 1e-9);
+        assertEquals(30, forecast.getTemperature(), 1e-9);
+        assertEquals(86, forecast.getHumidity());
+        assertTrue(forecast.isClimatological());
+    }
+
+    @Test
+    public void forecastFor_drySeasonIsClear() {
+        WeatherForecast forecast = Climatology.forecastFor(18.5204, 73.8567, date(Calendar.JANUARY));
+        assertEquals("Clear", forecast.getCondition());
+        assertEquals(0.01, forecast.getRainProbability(), 1e-9);
+    }
+
+    @Test
+    public void forecastFor_usesTheNearestCitysZone() {
+        // Just outside Nagpur: Vidarbha's May heat, not the coast's
+        WeatherForecast nagpur = Climatology.forecastFor(21.20, 79.10, date(Calendar.MAY));
+        WeatherForecast mumbai = Climatology.forecastFor(19.08, 72.88, date(Calendar.MAY));
+        assertEquals(43, nagpur.getTemperature(), 1e-9);
+        assertEquals(34, mumbai.getTemperature(), 1e-9);
+    }
+
+    @Test
+    public void forecastFor_octoberIsCloudsInTheDeccan() {
+        WeatherForecast forecast = Climatology.forecastFor(20.0059, 73.7910, date(Calendar.OCTOBER));
+        assertEquals("Clouds", forecast.getCondition());
+    }
+
+    private static Date date(int month) {
+        Calendar calendar = Calendar.getInstance();
+        calendar.set(2030, month, 15, 18, 0, 0);
+        return calendar.getTime();
+    }
+}
@@ -0,0 +1,72 @@
+package com.arsalankhan.venuego;
+
+import org.junit.Test;
+
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+
+public class ContentHashTest {
+
+    @Test
+    public void contentHash_isStableAcrossReparses() throws Exception {
+        List<Venue> first = parseFixture();
+        List<Venue> second = parseFixture();
+
+        assertEquals(first.size(), second.size());
+        for (int i = 0; i < first.size(); i++) {
+            assertNotNull(first.get(i).getContentHash());
+            assertEquals(first.get(i).getContentHash(), second.get(i).getContentHash());
+            assertEquals(first.get(i).getContentHash(), OSMDataService.contentHash(first.get(i)));
+        }
+    }
+
+    @Test
+    public void contentHash_changesWithAnyDerivedField() throws Exception {
+        Venue venue = parseFixture().get(0);
+        String original = OSMDataService.contentHash(venue);
+
+        venue.setContactPhone("+91 22 0000 0000");
+        assertNotEquals(original, OSMDataService.contentHash(venue));
+
+        venue = parseFixture().get(0);
+        venue.setLatitude(venue.getLatitude() + 0.0001);
+        assertNotEquals(original, OSMDataService.contentHash(venue));
+    }
+
+    @Test
+    public void contentHash_ignoresBookkeepingAndHoursOrder() throws Exception {
+        Venue venue = parseFixture().get(0);
+        String original = OSMDataService.contentHash(venue);
+
+        venue.setContentHash("stale");
+        assertEquals(original, OSMDataService.contentHash(venue));
+
+        // Business hours are hashed in key order, not insertion order
+        Map<String, String> reversed = new LinkedHashMap<>();
+        List<String> days = new ArrayList<>(venue.getBusinessHours().keySet());
+        for (int i = days.size() - 1; i >= 0; i--) {
+            reversed.put(days.get(i), venue.getBusinessHours().get(days.get(i)));
+        }
+        venue.setBusinessHours(reversed);
+        assertEquals(original, OSMDataService.contentHash(venue));
+    }
+
+    private List<Venue> parseFixture() throws Exception {
+        List<Venue> venues = new ArrayList<>();
+        try (InputStreamReader reader = new InputStreamReader(
+                getClass().getClassLoader().getResourceAsStream("overpass_tile.json"), StandardCharsets.UTF_8)) {
+            new OSMDataService(null, "http://localhost/unused").parseOSMResponse(reader,
+                    OSMDataService.coverageTiles().get(0), venues::add, new HashSet<>());
+        }
+        return venues;
+    }
+}
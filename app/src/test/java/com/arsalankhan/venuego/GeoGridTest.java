@@ -0,0 +1,104 @@
+package com.arsalankhan.venuego;
+
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class GeoGridTest {
+
+    @Test
+    public void cellOf_neighbouringColumnsAndRowsAreAdjacentIds() {
+        long cell = GeoGrid.cellOf(19.005, 72.875);
+        assertEquals(cell + 1, GeoGrid.cellOf(19.005, 72.885));
+        assertEquals(cell + 36000, GeoGrid.cellOf(19.015, 72.875));
+        assertEquals(GeoGrid.cellId(GeoGrid.row(19.005), GeoGrid.col(72.875)), cell);
+    }
+
+    @Test
+    public void cellOf_pointsInsideOneCellShareIt() {
+        assertEquals(GeoGrid.cellOf(19.0001, 72.8701), GeoGrid.cellOf(19.0099, 72.8799));
+    }
+
+    @Test
+    public void distanceKm_mumbaiToPune() {
+        double distance = GeoGrid.distanceKm(19.0760, 72.8777, 18.5204, 73.8567);
+        assertEquals(120, distance, 2);
+        assertEquals(0, GeoGrid.distanceKm(19.0760, 72.8777, 19.0760, 72.8777), 1e-9);
+    }
+
+    @Test
+    public void cellRanges_coverEveryPointWithinTheRadius() {
+        Random random = new Random(42);
+        double lat = 19.0760;
+        double lon = 72.8777;
+        double radiusKm = 12;
+        List<long[]> ranges = GeoGrid.cellRanges(GeoGrid.boundingBox(lat, lon, radiusKm));
+
+        for (int i = 0; i < 5000; i++) {
+            double pointLat = lat + (random.nextDouble() * 2 - 1) * 0.2;
+            double pointLon = lon + (random.nextDouble() * 2 - 1) * 0.2;
+            if (GeoGrid.distanceKm(lat, lon, pointLat, pointLon) > radiusKm) continue;
+            assertTrue("uncovered " + pointLat + "," + pointLon,
+                    inRanges(ranges, GeoGrid.cellOf(pointLat, pointLon)));
+        }
+    }
+
+    @Test
+    public void cellRanges_areOnePerRowAndNeverOverlap() {
+        double[] box = GeoGrid.boundingBox(18.5204, 73.8567, 5);
+        List<long[]> ranges = GeoGrid.cellRanges(box);
+        assertEquals(GeoGrid.row(box[1]) - GeoGrid.row(box[0]) + 1, ranges.size());
+
+        Set<Long> seen = new HashSet<>();
+        for (long[] range : ranges) {
+            assertTrue(range[0] <= range[1]);
+            for (long cell = range[0]; cell <= range[1]; cell++) {
+                assertTrue(seen.add(cell));
+            }
+        }
+    }
+
+    @Test
+    public void cellRanges_ringPlusInnerBoxEqualsOuterBox() {
+        double[] outer = GeoGrid.boundingBox(21.1458, 79.0882, 8);
+        double[] inner = GeoGrid.boundingBox(21.1458, 79.0882, 3);
+
+        Set<Long> ring = cells(GeoGrid.cellRanges(outer, inner));
+        Set<Long> innerCells = cells(GeoGrid.cellRanges(inner));
+        for (Long cell : innerCells) {
+            assertFalse(ring.contains(cell));
+        }
+        ring.addAll(innerCells);
+        assertEquals(cells(GeoGrid.cellRanges(outer)), ring);
+    }
+
+    @Test
+    public void weatherCellOf_usesTheCoarserGrid() {
+        assertEquals(GeoGrid.weatherCellOf(19.01, 72.81), GeoGrid.weatherCellOf(19.04, 72.84));
+        assertEquals(GeoGrid.weatherCellOf(19.01, 72.81) + 1, GeoGrid.weatherCellOf(19.01, 72.86));
+    }
+
+    private static boolean inRanges(List<long[]> ranges, long cell) {
+        for (long[] range : ranges) {
+            if (cell >= range[0] && cell <= range[1]) return true;
+        }
+        return false;
+    }
+
+    private static Set<Long> cells(List<long[]> ranges) {
+        Set<Long> cells = new HashSet<>();
+        for (long[] range : ranges) {
+            for (long cell = range[0]; cell <= range[1]; cell++) {
+                cells.add(cell);
+            }
+        }
+        return cells;
+    }
+}
@@ -0,0 +1,96 @@
+package com.arsalankhan.venuego;
+
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class OSMCoverageTest {
+
+    @Test
+    public void coverageTiles_areDistinctAndStable() {
+        List<OSMDataService.Tile> first = OSMDataService.coverageTiles();
+        List<OSMDataService.Tile> second = OSMDataService.coverageTiles();
+
+        Set<String> keys = new HashSet<>();
+        for (OSMDataService.Tile tile : first) {
+            assertTrue("duplicate tile " + tile.key, keys.add(tile.key));
+        }
+        assertEquals(first.size(), second.size());
+        for (int i = 0; i < first.size(); i++) {
+            assertEquals(first.get(i).key, second.get(i).key);
+        }
+    }
+
+    @Test
+    public void coverageTiles_coverEveryCityCircle() {
+        List<OSMDataService.Tile> tiles = OSMDataService.coverageTiles();
+        for (Map.Entry<String, double[]> city : OSMDataService.MAHARASHTRA_CITIES.entrySet()) {
+            double[] box = GeoGrid.boundingBox(city.getValue()[0], city.getValue()[1],
+                    OSMDataService.coverageRadiusKm(city.getKey()));
+            // Centre and all four corners of the circle's bounding box
+            double[][] points = {
+                    city.getValue(),
+                    {box[0], box[2]}, {box[0], box[3]}, {box[1], box[2]}, {box[1], box[3]}
+            };
+            for (double[] point : points) {
+                assertTrue(city.getKey() + " not covered at " + point[0] + "," + point[1],
+                        covered(tiles, point[0], point[1]));
+            }
+        }
+    }
+
+    @Test
+    public void coverageTiles_doNotOverlap() {
+        // Tiles are grid cells, so the same point never falls strictly inside two of them
+        List<OSMDataService.Tile> tiles = OSMDataService.coverageTiles();
+        for (OSMDataService.Tile tile : tiles) {
+            double lat = (tile.south + tile.north) / 2;
+            double lon = (tile.west + tile.east) / 2;
+            int containing = 0;
+            for (OSMDataService.Tile other : tiles) {
+                if (lat > other.south && lat < other.north && lon > other.west && lon < other.east) {
+                    containing++;
+                }
+            }
+            assertEquals(1, containing);
+        }
+    }
+
+    @Test
+    public void nearestCity_picksTheClosestCentre() {
+        assertEquals("Pune", OSMDataService.nearestCity(18.53, 73.85));
+        assertEquals("Nagpur", OSMDataService.nearestCity(21.20, 79.10));
+        // Far outside every circle there is still a nearest city
+        assertEquals("Chandrapur", OSMDataService.nearestCity(19.0, 80.5));
+    }
+
+    @Test
+    public void nearestCoveringCity_prefersTheCircleThatContainsThePoint() {
+        // Borivali is closer to Thane's centre but only inside Mumbai's wider circle
+        assertEquals("Thane", OSMDataService.nearestCity(19.25, 72.83));
+        assertEquals("Mumbai", OSMDataService.nearestCoveringCity(19.25, 72.83));
+    }
+
+    @Test
+    public void nearestCoveringCity_isNullOutsideEveryCircle() {
+        assertNull(OSMDataService.nearestCoveringCity(19.60, 73.60));
+        assertNull(OSMDataService.nearestCoveringCity(19.0, 80.5));
+        assertEquals("Nashik", OSMDataService.nearestCoveringCity(20.0059, 73.7910));
+    }
+
+    private static boolean covered(List<OSMDataService.Tile> tiles, double lat, double lon) {
+        for (OSMDataService.Tile tile : tiles) {
+            if (lat >= tile.south && lat <= tile.north && lon >= tile.west && lon <= tile.east) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,150 @@
+package com.arsalankhan.venuego;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs full refreshes against a local MockWebServer standing in for Overpass. Responses carry
+ * no elements, so nothing reaches Firestore.
+ */
+public class OSMIngestionTest {
+    private static final String EMPTY_RESPONSE =
+            "{\"osm3s\":{\"timestamp_osm_base\":\"2024-01-01T00:00:00Z\"},\"elements\":[]}";
+    private static final long RESPONSE_DELAY_MS = 40;
+
+    private MockWebServer server;
+    private final AtomicInteger busyResponsesLeft = new AtomicInteger();
+
+    @Before
+    public void setUp() throws Exception {
+        server = new MockWebServer();
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                if (busyResponsesLeft.getAndDecrement() > 0) {
+                    return new MockResponse().setResponseCode(429).setHeader("Retry-After", "0");
+                }
+                return new MockResponse()
+                        .setBody(EMPTY_RESPONSE)
+                        .setHeadersDelay(RESPONSE_DELAY_MS, TimeUnit.MILLISECONDS);
+            }
+        });
+        server.start();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.shutdown();
+    }
+
+    @Test
+    public void concurrentRefreshIsFasterThanSequential() throws Exception {
+        int tiles = OSMDataService.coverageTiles().size();
+
+        RecordingCallback sequential = refresh(1);
+        RecordingCallback concurrent = refresh(4);
+
+        assertEquals(Collections.emptyList(), sequential.failures);
+        assertEquals(Collections.emptyList(), concurrent.failures);
+        assertEquals(2 * tiles, server.getRequestCount());
+        // Every tile costs one round trip; four in flight should cut the wall clock well below half
+        assertTrue("sequential " + sequential.elapsedMs + " ms, concurrent " + concurrent.elapsedMs + " ms",
+                concurrent.elapsedMs * 2 < sequential.elapsedMs);
+    }
+
+    @Test
+    public void progressIsOrderedAndEndsBeforeSuccess() throws Exception {
+        RecordingCallback callback = refresh(4);
+
+        int tiles = OSMDataService.coverageTiles().size();
+        assertEquals(tiles, callback.progress.size());
+        for (int i = 1; i < callback.progress.size(); i++) {
+            assertTrue(callback.progress.get(i) >= callback.progress.get(i - 1));
+        }
+        assertEquals(100, (int) callback.progress.get(tiles - 1));
+        assertEquals(tiles, callback.progressBeforeSuccess);
+    }
+
+    @Test
+    public void busyResponsesAreRetried() throws Exception {
+        busyResponsesLeft.set(1);
+
+        RecordingCallback callback = refresh(2);
+
+        assertEquals(Collections.emptyList(), callback.failures);
+        assertEquals(OSMDataService.coverageTiles().size() + 1, server.getRequestCount());
+    }
+
+    @Test
+    public void tokenBucketAllowsABurstThenPaces() throws Exception {
+        TokenBucket bucket = new TokenBucket(2, 20);
+
+        long started = System.nanoTime();
+        bucket.acquire();
+        bucket.acquire();
+        long burstMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+
+        started = System.nanoTime();
+        for (int i = 0; i < 4; i++) {
+            bucket.acquire();
+        }
+        long pacedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+
+        assertTrue("burst took " + burstMs + " ms", burstMs < 50);
+        // Four tokens at 20 per second
+        assertTrue("paced took " + pacedMs + " ms", pacedMs >= 150 && pacedMs < 1000);
+    }
+
+    private RecordingCallback refresh(int maxConcurrentRequests) throws InterruptedException {
+        OSMDataService service = new OSMDataService(null, server.url("/api/interpreter").toString());
+        // A fast limiter so only concurrency and latency shape the wall clock
+        service.setIngestionLimits(maxConcurrentRequests, 1000);
+
+        RecordingCallback callback = new RecordingCallback();
+        long started = System.nanoTime();
+        service.fetchAllMaharashtraVenues(callback);
+        assertTrue("refresh did not finish", callback.done.await(60, TimeUnit.SECONDS));
+        callback.elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+        return callback;
+    }
+
+    private static class RecordingCallback implements OSMDataService.OSMDataCallback {
+        final CountDownLatch done = new CountDownLatch(1);
+        final List<Integer> progress = Collections.synchronizedList(new ArrayList<>());
+        final List<String> failures = Collections.synchronizedList(new ArrayList<>());
+        volatile int progressBeforeSuccess = -1;
+        long elapsedMs;
+
+        @Override
+        public void onSuccess(int venuesAdded, String city) {
+            progressBeforeSuccess = progress.size();
+            done.countDown();
+        }
+
+        @Override
+        public void onFailure(String error) {
+            failures.add(error);
+        }
+
+        @Override
+        public void onProgress(int progress, String message) {
+            this.progress.add(progress);
+        }
+    }
+}
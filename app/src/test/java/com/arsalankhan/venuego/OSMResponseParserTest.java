@@ -0,0 +1,145 @@
+package com.arsalankhan.venuego;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class OSMResponseParserTest {
+    private OSMDataService service;
+    private OSMDataService.Tile tile;
+
+    @Before
+    public void setUp() {
+        service = new OSMDataService(null, "http://localhost/unused");
+        tile = OSMDataService.coverageTiles().get(0);
+    }
+
+    @Test
+    public void parsesNamedElementsInsideCoverage() throws Exception {
+        List<Venue> venues = new ArrayList<>();
+        Set<String> listed = new HashSet<>();
+        long timestamp = service.parseOSMResponse(fixture(), tile, venues::add, listed);
+
+        assertEquals(1714557600000L, timestamp);
+        assertEquals(3, venues.size());
+
+        Venue restaurant = venues.get(0);
+        assertEquals("n101", restaurant.getOsmId());
+        assertEquals("Spice Garden", restaurant.getName());
+        assertEquals("Mumbai", restaurant.getCity());
+        assertEquals(19.07, restaurant.getLatitude(), 1e-9);
+        assertEquals("+91 22 1234 5678", restaurant.getContactPhone());
+        assertEquals("osm", restaurant.getDataSource());
+
+        // Ways are placed at their centre
+        Venue park = venues.get(1);
+        assertEquals("w202", park.getOsmId());
+        assertEquals(19.10, park.getLatitude(), 1e-9);
+        assertEquals(72.85, park.getLongitude(), 1e-9);
+
+        assertEquals("n606", venues.get(2).getOsmId());
+    }
+
+    @Test
+    public void listsEveryElementIdIncludingOnesThatYieldNoVenue() throws Exception {
+        Set<String> listed = new HashSet<>();
+        service.parseOSMResponse(fixture(), tile, venue -> { }, listed);
+
+        // Unnamed (n303), id-only (n404) and uncovered (n505) elements still count as present
+        assertEquals(new HashSet<>(Arrays.asList("n101", "w202", "n303", "n404", "n505", "n606")), listed);
+    }
+
+    @Test
+    public void remarkFailsTheResponse() throws Exception {
+        String response = "{\"osm3s\":{\"timestamp_osm_base\":\"2024-05-01T10:00:00Z\"},"
+                + "\"elements\":[{\"type\":\"node\",\"id\":1,\"lat\":19.07,\"lon\":72.88,"
+                + "\"tags\":{\"amenity\":\"restaurant\",\"name\":\"Cafe One\"}}],"
+                + "\"remark\":\"runtime error: Query timed out in \\\"query\\\" at line 3 after 61 seconds.\"}";
+        try {
+            service.parseOSMResponse(new StringReader(response), tile, venue -> { }, new HashSet<>());
+            fail("expected the remark to fail the tile");
+        } catch (IOException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("Query timed out"));
+        }
+    }
+
+    @Test
+    public void missingTimestampIsZero() throws Exception {
+        long timestamp = service.parseOSMResponse(new StringReader("{\"elements\":[]}"), tile,
+                venue -> { }, new HashSet<>());
+        assertEquals(0, timestamp);
+    }
+
+    @Test
+    public void parsesEveryElementOfALongStreamedResponse() throws Exception {
+        int elements = 50_000;
+        int[] count = {0};
+        Set<String> listed = new HashSet<>();
+
+        long timestamp = service.parseOSMResponse(new SyntheticResponse(elements), tile,
+                venue -> count[0]++, listed);
+
+        assertEquals(1714557600000L, timestamp);
+        assertEquals(elements, count[0]);
+        assertEquals(elements, listed.size());
+    }
+
+    private Reader fixture() {
+        InputStream in = getClass().getClassLoader().getResourceAsStream("overpass_tile.json");
+        return new InputStreamReader(in, StandardCharsets.UTF_8);
+    }
+
+    // Generates an Overpass response element by element, so the full text never exists in memory
+    private static class SyntheticResponse extends Reader {
+        private final int elements;
+        private int next = 0;
+        private String chunk = "{\"osm3s\":{\"timestamp_osm_base\":\"2024-05-01T10:00:00Z\"},\"elements\":[";
+        private int offset = 0;
+
+        SyntheticResponse(int elements) {
+            this.elements = elements;
+        }
+
+        @Override
+        public int read(char[] buffer, int off, int len) {
+            if (offset == chunk.length()) {
+                if (next > elements) return -1;
+                chunk = next == elements ? "]}" : element(next);
+                offset = 0;
+                next++;
+            }
+            int n = Math.min(len, chunk.length() - offset);
+            chunk.getChars(offset, offset + n, buffer, off);
+            offset += n;
+            return n;
+        }
+
+        private static String element(int i) {
+            double lat = 19.0 + (i % 1000) * 0.0001;
+            double lon = 72.85 + (i / 1000 % 100) * 0.0001;
+            return (i > 0 ? "," : "") + "{\"type\":\"node\",\"id\":" + (1_000_000 + i)
+                    + ",\"lat\":" + lat + ",\"lon\":" + lon
+                    + ",\"tags\":{\"amenity\":\"restaurant\",\"name\":\"Venue " + i + "\","
+                    + "\"cuisine\":\"indian\",\"addr:street\":\"Station Road\"}}";
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.arsalankhan.venuego;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class TextSearchRankingTest {
+    // Columns in FTS_COLUMNS order: name, address, description, amenities, category
+    private static final int NAME = 0;
+    private static final int DESCRIPTION = 2;
+    private static final int[] AVG_LENGTHS = {4, 8, 20, 6, 2};
+
+    @Test
+    public void buildFtsMatchExpression_prefixesEveryWord() {
+        assertEquals("grand* ban*", DatabaseHelper.buildFtsMatchExpression("Grand  Ban"));
+        assertEquals("sound* system*", DatabaseHelper.buildFtsMatchExpression("sound_system!"));
+    }
+
+    @Test
+    public void buildFtsMatchExpression_dropsFtsSyntax() {
+        assertEquals("grand* ban* hall*", DatabaseHelper.buildFtsMatchExpression("\"grand\" -ban*hall"));
+        assertNull(DatabaseHelper.buildFtsMatchExpression("  *-\" "));
+        assertNull(DatabaseHelper.buildFtsMatchExpression(null));
+    }
+
+    @Test
+    public void bm25_matchesTheOkapiFormula() {
+        // One hit in the name of a row with an average-length name; 10 of 100 rows match
+        byte[] info = matchInfo(100, AVG_LENGTHS, AVG_LENGTHS, NAME, 1, 10);
+        double idf = Math.log((100 - 10 + 0.5) / (10 + 0.5));
+        // At average length the tf term reduces to hits * (k1 + 1) / (hits + k1) = 1
+        assertEquals(3.0 * idf, DatabaseHelper.bm25(info), 1e-9);
+    }
+
+    @Test
+    public void bm25_rarerTermsScoreHigher() {
+        double rare = DatabaseHelper.bm25(matchInfo(1000, AVG_LENGTHS, AVG_LENGTHS, NAME, 1, 5));
+        double common = DatabaseHelper.bm25(matchInfo(1000, AVG_LENGTHS, AVG_LENGTHS, NAME, 1, 300));
+        assertTrue(rare > common);
+    }
+
+    @Test
+    public void bm25_nameHitsOutweighDescriptionHits() {
+        double name = DatabaseHelper.bm25(matchInfo(1000, AVG_LENGTHS, AVG_LENGTHS, NAME, 1, 50));
+        double description = DatabaseHelper.bm25(matchInfo(1000, AVG_LENGTHS, AVG_LENGTHS, DESCRIPTION, 1, 50));
+        assertTrue(name > description);
+    }
+
+    @Test
+    public void bm25_shorterFieldsScoreHigher() {
+        int[] shortName = AVG_LENGTHS.clone();
+        shortName[NAME] = 2;
+        int[] longName = AVG_LENGTHS.clone();
+        longName[NAME] = 12;
+        double shorter = DatabaseHelper.bm25(matchInfo(1000, AVG_LENGTHS, shortName, NAME, 1, 50));
+        double longer = DatabaseHelper.bm25(matchInfo(1000, AVG_LENGTHS, longName, NAME, 1, 50));
+        assertTrue(shorter > longer);
+    }
+
+    @Test
+    public void bm25_termsInMostRowsStayPositive() {
+        assertTrue(DatabaseHelper.bm25(matchInfo(100, AVG_LENGTHS, AVG_LENGTHS, NAME, 1, 90)) > 0);
+    }
+
+    @Test
+    public void bm25_isZeroWithoutHits() {
+        assertEquals(0, DatabaseHelper.bm25(matchInfo(100, AVG_LENGTHS, AVG_LENGTHS, NAME, 0, 10)), 0);
+    }
+
+    // matchinfo('pcnalx') for a single phrase that hits only `column`
+    private static byte[] matchInfo(int rowCount, int[] avgLengths, int[] lengths, int column,
+                                    int hits, int rowsWithHit) {
+        int columns = avgLengths.length;
+        ByteBuffer buffer = ByteBuffer.allocate(4 * (3 + 2 * columns + 3 * columns)).order(ByteOrder.nativeOrder());
+        buffer.putInt(1).putInt(columns).putInt(rowCount);
+        for (int length : avgLengths) buffer.putInt(length);
+        for (int length : lengths) buffer.putInt(length);
+        for (int c = 0; c < columns; c++) {
+            boolean hit = c == column && hits > 0;
+            buffer.putInt(hit ? hits : 0).putInt(hit ? hits * 2 : 0).putInt(hit ? rowsWithHit : 0);
+        }
+        return buffer.array();
+    }
+}